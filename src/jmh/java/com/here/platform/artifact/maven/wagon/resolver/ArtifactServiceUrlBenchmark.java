@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.resolver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.ArtifactWagon;
+import org.apache.maven.wagon.repository.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Artifact Service URL of a register call. The wagon used to build a resolver chain on every call,
+ * now it returns the URL resolved for the repository. Both read the URL from the in-memory resolver, so that
+ * neither the file cache nor the lookup API is involved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArtifactServiceUrlBenchmark {
+
+  private static final String TOKEN_URL = "https://account.api.here.com/oauth2/token";
+  private static final String ARTIFACT_SERVICE_URL = "https://artifact.api.platform.here.com/v1/artifact";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Repository repository =
+      new Repository("here-artifact", "here+artifact-service://artifact-service");
+  private ArtifactWagon wagon;
+
+  @Setup
+  public void setup() throws IllegalAccessException {
+    new ArtifactServiceUrlInMemoryCachedResolver().afterUrlResolved(TOKEN_URL, ARTIFACT_SERVICE_URL);
+    wagon = new ArtifactWagon() {
+      @Override
+      protected Properties loadHereProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("here.token.endpoint.url", TOKEN_URL);
+        return properties;
+      }
+    };
+  }
+
+  /**
+   * The former cost per register call
+   */
+  @Benchmark
+  public String resolverChainPerCall() {
+    return new ArtifactServiceUrlResolverChain(() -> null, objectMapper).resolveArtifactServiceUrl(TOKEN_URL);
+  }
+
+  @Benchmark
+  public String memoizedWagonUrl() {
+    return wagon.getURL(repository);
+  }
+}
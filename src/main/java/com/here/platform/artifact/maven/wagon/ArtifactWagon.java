@@ -21,17 +21,30 @@ package com.here.platform.artifact.maven.wagon;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.here.account.auth.OAuth1ClientCredentialsProvider;
 import com.here.account.http.HttpProvider;
 import com.here.account.http.apache.ApacheHttpClientProvider;
-import com.here.account.oauth2.ClientAuthorizationRequestProvider;
-import com.here.account.oauth2.ClientCredentialsGrantRequest;
-import com.here.account.oauth2.HereAccount;
-import com.here.account.oauth2.TokenEndpoint;
+import com.here.platform.artifact.maven.wagon.auth.AccessToken;
+import com.here.platform.artifact.maven.wagon.auth.AccessTokenHolder;
+import com.here.platform.artifact.maven.wagon.auth.AccessTokenRegistry;
+import com.here.platform.artifact.maven.wagon.auth.BearerAuthorizationInterceptor;
+import com.here.platform.artifact.maven.wagon.auth.FileAccessTokenCache;
+import com.here.platform.artifact.maven.wagon.auth.HereTokenMinter;
+import com.here.platform.artifact.maven.wagon.broker.TokenBrokerClient;
+import com.here.platform.artifact.maven.wagon.cache.ExpiringCache;
+import com.here.platform.artifact.maven.wagon.cache.MissingArtifactCache;
+import com.here.platform.artifact.maven.wagon.cache.RegisterResponseCache;
+import com.here.platform.artifact.maven.wagon.http.Http2RequestExecutor;
+import com.here.platform.artifact.maven.wagon.http.IdempotentHttpPut;
+import com.here.platform.artifact.maven.wagon.http.RateLimitRetryExec;
+import com.here.platform.artifact.maven.wagon.http.ResumableEntity;
+import com.here.platform.artifact.maven.wagon.http.RetryLoop;
+import com.here.platform.artifact.maven.wagon.http.SharedConnectionPool;
+import com.here.platform.artifact.maven.wagon.http.TransferDeadline;
 import com.here.platform.artifact.maven.wagon.model.RegisterRequest;
 import com.here.platform.artifact.maven.wagon.model.RegisterResponse;
 import com.here.platform.artifact.maven.wagon.model.ServiceExceptionResponse;
 import com.here.platform.artifact.maven.wagon.resolver.ArtifactServiceUrlResolverChain;
+import com.here.platform.artifact.maven.wagon.util.SingleFlight;
 import com.here.platform.artifact.maven.wagon.util.StringUtils;
 import org.apache.http.*;
 import org.apache.http.auth.AuthScope;
@@ -42,13 +55,13 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.execchain.ClientExecChain;
-import org.apache.http.impl.execchain.ServiceUnavailableRetryExec;
-import org.apache.http.protocol.HttpContext;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.apache.maven.wagon.TransferFailedException;
@@ -60,15 +73,26 @@ import org.apache.maven.wagon.resource.Resource;
 import org.apache.maven.wagon.shared.http.AbstractHttpClientWagon;
 import org.apache.maven.wagon.shared.http.EncodingUtil;
 import org.codehaus.plexus.component.annotations.Component;
-import org.codehaus.plexus.util.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static com.here.platform.artifact.maven.wagon.auth.BearerAuthorizationInterceptor.BEARER_PREFIX;
 import static com.here.platform.artifact.maven.wagon.util.StringUtils.defaultIfEmpty;
 import static com.here.platform.artifact.maven.wagon.util.StringUtils.isEmpty;
 
@@ -86,6 +110,7 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
 
   private static final int OAUTH_REQUEST_TIMEOUT_IN_MS = 20000;
   private static final int OAUTH_CONNECTION_TIMEOUT_IN_MS = 20000;
+  private static final int OAUTH_MAX_CONNECTIONS = 4;
 
   private static final String AUTHORIZATION_FORBIDDEN_ERROR_MESSAGE =
       "The resource may already exist "
@@ -102,6 +127,55 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
   private static final String HERE_ACCESS_SECRET_KEY = "here.access.key.secret";
   private static final String HERE_ACCESS_ID_KEY = "here.access.key.id";
   private static final String HERE_USER_ID_KEY = "here.user.id";
+  private static final String OPTIMISTIC_DOWNLOAD_PROPERTY = "hereOptimisticDownload";
+  private static final String WARM_UP_PROPERTY = "hereWarmUp";
+  private static final String HTTP_TRANSPORT_PROPERTY = "hereHttpTransport";
+  private static final String HTTP2_TRANSPORT = "http2";
+  private static final int MAX_REGISTERED_ARTIFACTS = 10000;
+  private static final Duration REGISTERED_ARTIFACT_TTL = Duration.ofHours(1);
+
+  /**
+   * Download using the known HRN prefix of the group and verify the artifact registration only on failure
+   */
+  private static final boolean OPTIMISTIC_DOWNLOAD =
+      Boolean.parseBoolean(System.getProperty(OPTIMISTIC_DOWNLOAD_PROPERTY, "true"));
+
+  /**
+   * Mint the token and open a connection to the repository in the background when the wagon is connected
+   */
+  private static final boolean WARM_UP = Boolean.parseBoolean(System.getProperty(WARM_UP_PROPERTY, "true"));
+
+  /**
+   * Send the requests with the HTTP/2 capable client of the JDK instead of Apache HttpClient
+   */
+  private static final boolean USE_HTTP2_TRANSPORT =
+      HTTP2_TRANSPORT.equalsIgnoreCase(System.getProperty(HTTP_TRANSPORT_PROPERTY));
+
+  private static final ExecutorService WARM_UP_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "artifact-wagon-warm-up");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Artifacts registered via PUT per repository, group and artifact.
+   * NOTE: The variable is static so that all files of an artifact deployed in this JVM share one registration.
+   */
+  private static final ExpiringCache<String, RegisterResponse> REGISTERED_ARTIFACTS =
+      new ExpiringCache<>(MAX_REGISTERED_ARTIFACTS, REGISTERED_ARTIFACT_TTL);
+
+  /**
+   * Register calls in flight per repository, group and artifact.
+   * NOTE: The variables are static so that concurrent wagon instances share a single call.
+   */
+  private static final SingleFlight<String, RegisterResponse> REGISTER_ARTIFACT_CALLS = new SingleFlight<>();
+  private static final SingleFlight<String, RegisterResponse> REGISTER_EXISTS_CALLS = new SingleFlight<>();
+
+  /**
+   * HttpProviders for HereAccount per token endpoint and proxy.
+   * NOTE: The variable is static so that the pooled connections are reused by all wagon instances in the JVM.
+   */
+  private static final ConcurrentMap<String, HttpProvider> HTTP_PROVIDERS = new ConcurrentHashMap<>();
 
   /**
    * Defines the protocol mapping to use. NOTE: The order of the mapping becomes the search order.
@@ -113,11 +187,28 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
       };
 
   private static final String ARTIFACT_SERVICE_URL_PLACEHOLDER_PROTOCOL = "here+artifact-service";
-  private final Object lock = new Object();
   private final ObjectMapper objectMapper;
   private final Properties hereProperties;
+  private final ArtifactServiceUrlResolverChain artifactServiceUrlResolverChain;
+
+  /**
+   * Resolved URLs per repository URL. The token endpoint is fixed per wagon instance.
+   */
+  private final ConcurrentMap<String, String> resolvedRepositoryUrls = new ConcurrentHashMap<>();
+
+  /**
+   * The placeholder URL of the repository. Connecting replaces the URL of the repository with the resolved one,
+   * the placeholder URL is kept to resolve it again after the resolved URL became unreachable.
+   */
+  private volatile String placeholderRepositoryUrl;
 
-  private String authorization;
+  /**
+   * Token of the current credentials, shared with all wagons in the JVM using the same credentials
+   */
+  private volatile AccessTokenHolder accessToken;
+  private volatile RequestExecutor http2RequestExecutor;
+  private final BearerAuthorizationInterceptor authorizationInterceptor =
+      new BearerAuthorizationInterceptor(this::getAccessToken);
 
   public ArtifactWagon() throws IllegalAccessException {
     // load the HERE credentials file
@@ -127,12 +218,12 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
     objectMapper = new ObjectMapper();
     objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+    artifactServiceUrlResolverChain = new ArtifactServiceUrlResolverChain(this::createProxyAwareHttpClient, objectMapper);
     setRetryStrategy();
   }
 
   String getDefaultArtifactServiceUrl() {
     String hereTokenEndpointUrl = this.hereProperties.getProperty(HERE_ENDPOINT_URL_KEY);
-    ArtifactServiceUrlResolverChain artifactServiceUrlResolverChain = new ArtifactServiceUrlResolverChain(this::createProxyAwareHttpClient, objectMapper);
     String artifactServiceUrl = artifactServiceUrlResolverChain.resolveArtifactServiceUrl(hereTokenEndpointUrl);
     if (StringUtils.isEmpty(artifactServiceUrl)) {
       throw new RuntimeException("Unable to resolve Artifact Service URL");
@@ -142,11 +233,7 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
 
   private CloseableHttpClient createProxyAwareHttpClient() {
     HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
-        .addInterceptorFirst((HttpRequest request, HttpContext context) -> {
-          if (request instanceof HttpUriRequest) {
-            setHeaders((HttpUriRequest) request);
-          }
-        });
+        .addInterceptorFirst(authorizationInterceptor);
     ProxyInfo proxyInfo = getProxyInfo();
     if (proxyInfo != null) {
       String proxyHost = proxyInfo.getHost();
@@ -159,43 +246,146 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
           .setDefaultCredentialsProvider(basicCredentialsProvider)
           .setProxy(new HttpHost(proxyHost, proxyport));
     }
-    return httpClientBuilder.build();
+    return SharedConnectionPool.shared().configure(httpClientBuilder).build();
   }
 
   @Override
   public void setHeaders(HttpUriRequest method) {
-    synchronized (lock) {
-      // just authorize once
-      if (authorization == null) {
-        Properties properties = this.hereProperties;
-
-        // override with security information
-        if (getAuthenticationInfo() != null) {
-          properties = new Properties();
-          properties.putAll(this.hereProperties);
-
-          if (!isEmpty(getAuthenticationInfo().getUserName())) {
-            properties.setProperty(HERE_ACCESS_ID_KEY, getAuthenticationInfo().getUserName());
-          }
-          if (!isEmpty(getAuthenticationInfo().getPassword())) {
-            properties.setProperty(HERE_ACCESS_SECRET_KEY, getAuthenticationInfo().getPassword());
-          }
-        }
+    super.setHeaders(method);
+    // the HTTP client is static and shared with wagons using other credentials, so the header is set per request
+    method.setHeader(authorizationInterceptor.getHeader());
+  }
+
+  @Override
+  public void openConnectionInternal() {
+    // the credentials may have been overridden by the authentication info of the connection
+    accessToken = lookupAccessToken();
+    if (WARM_UP) {
+      startAuthorizationWarmUp();
+    }
+    // resolves the repository URL while the token is minted in the background
+    super.openConnectionInternal();
+    if (WARM_UP) {
+      preconnect(getRepository().getUrl());
+    }
+  }
+
+  /**
+   * Mint the token in the background, so that the first request only waits for the remaining time
+   */
+  private void startAuthorizationWarmUp() {
+    WARM_UP_EXECUTOR.execute(() -> {
+      try {
+        getAccessToken().get();
+      } catch (RuntimeException exp) {
+        LOG.debug("Background authentication failed", exp);
+      }
+    });
+  }
 
-        // attempt to make an authorization
-        authorization = mintAuthorizationToken(properties);
-        LOG.trace("Obtained bearer token: {}", authorization);
+  /**
+   * Open a connection to the repository host in the background, so that the TLS handshake is done
+   * before the first artifact is requested. No request is sent, so the warm-up doesn't count towards the rate limit.
+   * Connections via a proxy and of the HTTP/2 transport are not opened in advance.
+   *
+   * @param url resolved repository URL
+   */
+  private void preconnect(String url) {
+    if (url == null || !url.startsWith("https://") || USE_HTTP2_TRANSPORT || getProxyInfo() != null) {
+      return;
+    }
+    WARM_UP_EXECUTOR.execute(() -> {
+      try {
+        SharedConnectionPool.shared().preconnect(URI.create(url), getTimeout());
+      } catch (Exception exp) {
+        LOG.debug("Unable to preconnect to {}", url, exp);
       }
+    });
+  }
+
+  private AccessTokenHolder getAccessToken() {
+    AccessTokenHolder holder = accessToken;
+    if (holder == null) {
+      holder = lookupAccessToken();
+      accessToken = holder;
     }
+    return holder;
+  }
+
+  private AccessTokenHolder lookupAccessToken() {
+    Properties properties = getCredentialsProperties();
+    String endpointUrl = properties.getProperty(HERE_ENDPOINT_URL_KEY);
+    String accessKeyId = properties.getProperty(HERE_ACCESS_ID_KEY);
+    // wagons with other proxy settings get their own holder, as its minter mints via the proxy of this wagon
+    return AccessTokenRegistry.shared().getHolder(
+        endpointUrl,
+        accessKeyId,
+        properties.getProperty(HERE_ACCESS_SECRET_KEY),
+        endpointUrl == null ? null : getHttpProviderKey(endpointUrl),
+        TokenBrokerClient.shared().withBroker(properties,
+            FileAccessTokenCache.shared().withCache(endpointUrl, accessKeyId, () -> mintAccessToken(properties))));
+  }
+
+  /**
+   * Replace a token rejected by the server in all places it is shared
+   *
+   * @param rejectedToken the rejected token
+   */
+  private void refreshAccessToken(String rejectedToken) {
+    Properties properties = getCredentialsProperties();
+    FileAccessTokenCache.shared().invalidate(
+        properties.getProperty(HERE_ENDPOINT_URL_KEY), properties.getProperty(HERE_ACCESS_ID_KEY), rejectedToken);
+    TokenBrokerClient.shared().invalidate(properties, rejectedToken);
+    getAccessToken().refresh(rejectedToken);
+  }
+
+  private Properties getCredentialsProperties() {
+    Properties properties = this.hereProperties;
 
-    Properties properties = super.getHttpHeaders();
-    if (properties == null) {
+    // override with security information
+    if (getAuthenticationInfo() != null) {
       properties = new Properties();
+      properties.putAll(this.hereProperties);
+
+      if (!isEmpty(getAuthenticationInfo().getUserName())) {
+        properties.setProperty(HERE_ACCESS_ID_KEY, getAuthenticationInfo().getUserName());
+      }
+      if (!isEmpty(getAuthenticationInfo().getPassword())) {
+        properties.setProperty(HERE_ACCESS_SECRET_KEY, getAuthenticationInfo().getPassword());
+      }
     }
-    properties.setProperty("Authorization", String.format("Bearer %s", authorization));
-    setHttpHeaders(properties);
+    return properties;
+  }
 
-    super.setHeaders(method);
+  /**
+   * Return the register response cache, e.g. to read its hit and miss counters
+   *
+   * @return the register response cache shared by all wagon instances in the JVM
+   */
+  RegisterResponseCache getRegisterResponseCache() {
+    return RegisterResponseCache.shared();
+  }
+
+  /**
+   * Return the cache of artifacts which are not registered in the repository
+   *
+   * @return the missing artifact cache shared by all wagon instances in the JVM
+   */
+  MissingArtifactCache getMissingArtifactCache() {
+    return MissingArtifactCache.shared();
+  }
+
+  @Override
+  public void closeConnection() {
+    super.closeConnection();
+    artifactServiceUrlResolverChain.close();
+    RegisterResponseCache registerResponseCache = getRegisterResponseCache();
+    registerResponseCache.flush();
+    LOG.debug("Register cache statistics: {} hits, {} disk hits, {} misses, {} negative cache hits",
+        registerResponseCache.getHitCount(),
+        registerResponseCache.getDiskHitCount(),
+        registerResponseCache.getMissCount(),
+        getMissingArtifactCache().getHitCount());
   }
 
   @Override
@@ -204,6 +394,46 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
   }
 
   private String resolveRepositoryUrl(String url) {
+    if (url.startsWith(ARTIFACT_SERVICE_URL_PLACEHOLDER_PROTOCOL)) {
+      placeholderRepositoryUrl = url;
+    }
+    String resolvedUrl = resolvedRepositoryUrls.get(url);
+    if (resolvedUrl == null) {
+      resolvedUrl = mapRepositoryUrl(url);
+      resolvedRepositoryUrls.put(url, resolvedUrl);
+    }
+    return resolvedUrl;
+  }
+
+  /**
+   * Resolve the placeholder URL of the repository again via lookup API and point the repository to the result
+   */
+  private void invalidateArtifactServiceUrl() {
+    String placeholderUrl = placeholderRepositoryUrl;
+    if (placeholderUrl == null) {
+      // the URL is configured explicitly, there is nothing to resolve
+      return;
+    }
+    resolvedRepositoryUrls.remove(placeholderUrl);
+    invalidateDefaultArtifactServiceUrl();
+    try {
+      getRepository().setUrl(resolveRepositoryUrl(placeholderUrl));
+    } catch (RuntimeException exp) {
+      LOG.debug("Unable to resolve Artifact Service URL again", exp);
+    }
+  }
+
+  /**
+   * Forget the Artifact Service URL cached for the token endpoint
+   */
+  void invalidateDefaultArtifactServiceUrl() {
+    String hereTokenEndpointUrl = this.hereProperties.getProperty(HERE_ENDPOINT_URL_KEY);
+    if (hereTokenEndpointUrl != null) {
+      artifactServiceUrlResolverChain.invalidate(hereTokenEndpointUrl);
+    }
+  }
+
+  private String mapRepositoryUrl(String url) {
     // return as-is if no mapping should be done
     String resolvedUrl = url;
 
@@ -238,36 +468,73 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
   @Override
   protected InputStream getInputStream(Resource resource)
       throws TransferFailedException, ResourceDoesNotExistException {
-    // update to the correct path
-    String path = verifyAndRewrite(resource.getName());
-    resource.setName(path);
-
+    TransferDeadline.Scope deadline = TransferDeadline.start();
     try {
-      return super.getInputStream(resource);
-    } catch (AuthorizationException exp) {
-      throw new ResourceDoesNotExistException(
-          "Authorization error using path: " + resource.getName(), exp);
+      String destination = resource.getName();
+
+      // try the known HRN prefix of the group first, artifacts of one group share the same prefix
+      String optimisticPath = OPTIMISTIC_DOWNLOAD ? rewriteWithGroupHrnPrefix(destination) : null;
+      Exception optimisticFailure = null;
+      if (optimisticPath != null) {
+        resource.setName(optimisticPath);
+        try {
+          return super.getInputStream(resource);
+        } catch (ResourceDoesNotExistException | AuthorizationException exp) {
+          LOG.debug("Download using path {} failed, verifying artifact registration", optimisticPath);
+          optimisticFailure = exp;
+        }
+      }
+
+      // update to the correct path
+      String path = verifyAndRewrite(destination);
+      if (path.equals(optimisticPath)) {
+        throw new ResourceDoesNotExistException("Unable to find resource using path: " + path, optimisticFailure);
+      }
+      resource.setName(path);
+
+      try {
+        return super.getInputStream(resource);
+      } catch (AuthorizationException exp) {
+        throw new ResourceDoesNotExistException(
+            "Authorization error using path: " + resource.getName(), exp);
+      }
+    } finally {
+      deadline.end();
     }
   }
 
   @Override
   public void put(File source, String resourceName)
       throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
-    resourceName = registerAndRewrite(resourceName);
+    TransferDeadline.Scope deadline = TransferDeadline.start();
     try {
-      super.put(source, resourceName);
-    } catch (AuthorizationException e) {
-      throw new AuthorizationException(AUTHORIZATION_FORBIDDEN_ERROR_MESSAGE, e);
-    } catch (RuntimeException re) {
-      throw new TransferFailedException(String.format(FILE_PUT_ERROR_MESSAGE, resourceName), re);
+      resourceName = registerAndRewrite(resourceName);
+      try {
+        super.put(source, resourceName);
+      } catch (AuthorizationException e) {
+        throw new AuthorizationException(AUTHORIZATION_FORBIDDEN_ERROR_MESSAGE, e);
+      } catch (RuntimeException re) {
+        throw new TransferFailedException(String.format(FILE_PUT_ERROR_MESSAGE, resourceName), re);
+      }
+    } finally {
+      deadline.end();
     }
   }
 
   @Override
   protected CloseableHttpResponse execute(HttpUriRequest httpMethod) throws HttpException, IOException {
-    CloseableHttpResponse httpResponse = super.execute(httpMethod);
+    CloseableHttpResponse httpResponse = executeOnce(httpMethod);
 
     int status = httpResponse.getStatusLine().getStatusCode();
+    if (status == HttpStatus.SC_UNAUTHORIZED && isReplayable(httpMethod)) {
+      // the token may have expired or been revoked, mint a new one and replay the request once
+      String rejectedToken = getBearerToken(httpMethod);
+      consumeQuietly(httpResponse);
+      LOG.debug("Request to {} was not authorized, replaying it with a new token", httpMethod.getURI());
+      refreshAccessToken(rejectedToken);
+      httpResponse = executeOnce(httpMethod);
+      status = httpResponse.getStatusLine().getStatusCode();
+    }
     if (status == HttpStatus.SC_UNPROCESSABLE_ENTITY) {
       String message = "";
       String content = EntityUtils.toString(httpResponse.getEntity());
@@ -278,6 +545,10 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
       }
       throw new RuntimeException(httpResponse.getStatusLine() + " " + message);
     }
+    if (status == HttpStatus.SC_OK && httpMethod instanceof HttpGet) {
+      // continue the download with a range request if the connection fails midway
+      ResumableEntity.makeResumable(httpMethod, httpResponse, this::execute);
+    }
 
     return httpResponse;
   }
@@ -286,11 +557,16 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
   public void putFromStream(
       InputStream stream, String destination, long contentLength, long lastModified)
       throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
-    destination = registerAndRewrite(destination);
+    TransferDeadline.Scope deadline = TransferDeadline.start();
     try {
-      super.putFromStream(stream, destination, contentLength, lastModified);
-    } catch (AuthorizationException e) {
-      throw new AuthorizationException(AUTHORIZATION_FORBIDDEN_ERROR_MESSAGE, e);
+      destination = registerAndRewrite(destination);
+      try {
+        super.putFromStream(stream, destination, contentLength, lastModified);
+      } catch (AuthorizationException e) {
+        throw new AuthorizationException(AUTHORIZATION_FORBIDDEN_ERROR_MESSAGE, e);
+      }
+    } finally {
+      deadline.end();
     }
   }
 
@@ -327,6 +603,7 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
     try {
       Artifact artifact = toArtifact(destination);
       RegisterResponse registerResponse = registerExists(artifact);
+      getRegisterResponseCache().putGroupHrnPrefix(groupCacheKey(artifact), registerResponse.getGroupHrnPrefix());
 
       destination = buildPath(registerResponse.getGroupHrnPrefix(), artifact);
       LOG.trace("Rewrote path for put: {}", destination);
@@ -339,17 +616,54 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
   }
 
   /**
-   * Register the prefix
+   * Rewrite the URL using the HRN prefix already known for the group
+   *
+   * @param destination
+   * @return rewritten path or {@code null} if the group HRN prefix is not known yet
+   */
+  private String rewriteWithGroupHrnPrefix(String destination) {
+    try {
+      Artifact artifact = toArtifact(destination);
+      String groupHrnPrefix = getRegisterResponseCache().getGroupHrnPrefix(groupCacheKey(artifact));
+      return groupHrnPrefix == null ? null : buildPath(groupHrnPrefix, artifact);
+    } catch (InvalidPathException exp) {
+      return null;
+    }
+  }
+
+  /**
+   * Register the prefix. Each artifact is registered once, so the registration is shared by its pom, jar,
+   * sources, javadoc and checksum files, also when they are uploaded concurrently.
    *
    * @param artifact
    * @throws TransferFailedException
    */
   private RegisterResponse registerArtifact(Artifact artifact) throws TransferFailedException {
+    String cacheKey = registerCacheKey(artifact);
+    RegisterResponse registeredArtifact = REGISTERED_ARTIFACTS.get(cacheKey);
+    if (registeredArtifact != null) {
+      LOG.trace("Artifact {} is already registered", cacheKey);
+      return registeredArtifact;
+    }
+
+    try {
+      RegisterResponse registerResponse =
+          REGISTER_ARTIFACT_CALLS.execute(cacheKey, () -> requestRegisterArtifact(artifact));
+      REGISTERED_ARTIFACTS.put(cacheKey, registerResponse);
+      return registerResponse;
+    } catch (TransferFailedException | RuntimeException exp) {
+      throw exp;
+    } catch (Exception exp) {
+      throw new TransferFailedException("Error during registerArtifact: " + exp.getMessage(), exp);
+    }
+  }
+
+  private RegisterResponse requestRegisterArtifact(Artifact artifact) throws TransferFailedException {
     String registerPath =
         String.format("%s/%s/%s", REGISTER_PREFIX, artifact.getGroupId(), artifact.getArtifactId());
     try {
       String url = EncodingUtil.encodeURLToString(getURL(getRepository()), registerPath);
-      HttpPut httpPut = new HttpPut(url);
+      HttpPut httpPut = new IdempotentHttpPut(url);
       httpPut.addHeader("Content-Type", "application/json");
 
       // add in user identifier to request
@@ -376,7 +690,10 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
                   message));
         }
         InputStream content = httpEntity.getContent();
-        return objectMapper.readValue(content, RegisterResponse.class);
+        RegisterResponse registerResponse = objectMapper.readValue(content, RegisterResponse.class);
+        getRegisterResponseCache().put(registerCacheKey(artifact), registerResponse);
+        getMissingArtifactCache().remove(registerCacheKey(artifact));
+        return registerResponse;
       } finally {
         consumeQuietly(httpResponse);
       }
@@ -400,6 +717,29 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
    */
   private RegisterResponse registerExists(Artifact artifact)
       throws ResourceDoesNotExistException, TransferFailedException {
+    String cacheKey = registerCacheKey(artifact);
+    RegisterResponse cachedResponse = getRegisterResponseCache().get(cacheKey);
+    if (cachedResponse != null) {
+      LOG.trace("Using cached register response for {}", cacheKey);
+      return cachedResponse;
+    }
+    if (getMissingArtifactCache().isMissing(cacheKey)) {
+      LOG.trace("Artifact {} is known to be missing", cacheKey);
+      throw new ResourceDoesNotExistException(
+          String.format("%s/%s/%s", REGISTER_PREFIX, artifact.getGroupId(), artifact.getArtifactId()));
+    }
+
+    try {
+      return REGISTER_EXISTS_CALLS.execute(cacheKey, () -> requestRegisterExists(artifact, cacheKey));
+    } catch (ResourceDoesNotExistException | TransferFailedException | RuntimeException exp) {
+      throw exp;
+    } catch (Exception exp) {
+      throw new TransferFailedException("Error during registerExists: " + exp.getMessage(), exp);
+    }
+  }
+
+  private RegisterResponse requestRegisterExists(Artifact artifact, String cacheKey)
+      throws ResourceDoesNotExistException, TransferFailedException {
     String registerPath =
         String.format("%s/%s/%s", REGISTER_PREFIX, artifact.getGroupId(), artifact.getArtifactId());
     String url = EncodingUtil.encodeURLToString(getURL(getRepository()), registerPath);
@@ -411,10 +751,15 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
       try {
         int status = httpResponse.getStatusLine().getStatusCode();
         if (status != HttpStatus.SC_OK) {
+          if (status == HttpStatus.SC_NOT_FOUND) {
+            getMissingArtifactCache().putMissing(cacheKey);
+          }
           throw new ResourceDoesNotExistException(registerPath);
         }
         InputStream content = httpResponse.getEntity().getContent();
-        return objectMapper.readValue(content, RegisterResponse.class);
+        RegisterResponse registerResponse = objectMapper.readValue(content, RegisterResponse.class);
+        getRegisterResponseCache().put(cacheKey, registerResponse);
+        return registerResponse;
       } finally {
         consumeQuietly(httpResponse);
       }
@@ -426,6 +771,77 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
     }
   }
 
+  private CloseableHttpResponse executeOnce(HttpUriRequest httpMethod) throws HttpException, IOException {
+    try {
+      return getRequestExecutor().apply(httpMethod);
+    } catch (ConnectionPoolTimeoutException exp) {
+      // the local connection pool is exhausted, the URL is fine
+      throw exp;
+    } catch (ConnectException | ConnectTimeoutException | HttpConnectTimeoutException | NoRouteToHostException
+             | UnknownHostException exp) {
+      LOG.debug("Unable to connect to {}, resolving Artifact Service URL again", httpMethod.getURI().getHost());
+      invalidateArtifactServiceUrl();
+      throw exp;
+    }
+  }
+
+  /**
+   * Return the transport of the requests
+   *
+   * @return the Apache HttpClient of the wagon or the HTTP/2 client if enabled via {@code hereHttpTransport}
+   */
+  RequestExecutor getRequestExecutor() {
+    if (!USE_HTTP2_TRANSPORT) {
+      return super::execute;
+    }
+    RequestExecutor requestExecutor = http2RequestExecutor;
+    if (requestExecutor == null) {
+      HttpClient httpClient = Http2RequestExecutor.getHttpClient(getProxyInfo(), Duration.ofMillis(getTimeout()));
+      Http2RequestExecutor executor = new Http2RequestExecutor(
+          httpClient, Duration.ofMillis(getReadTimeout()), new XRateLimitServiceUnavailableRetryStrategy());
+      requestExecutor = request -> {
+        setHeaders(request);
+        return executor.apply(request);
+      };
+      http2RequestExecutor = requestExecutor;
+    }
+    return requestExecutor;
+  }
+
+  private String getBearerToken(HttpUriRequest httpMethod) {
+    Header authorizationHeader = httpMethod.getFirstHeader(HttpHeaders.AUTHORIZATION);
+    if (authorizationHeader == null || !authorizationHeader.getValue().startsWith(BEARER_PREFIX)) {
+      return null;
+    }
+    return authorizationHeader.getValue().substring(BEARER_PREFIX.length());
+  }
+
+  private boolean isReplayable(HttpUriRequest httpMethod) {
+    if (httpMethod instanceof HttpEntityEnclosingRequest) {
+      HttpEntity entity = ((HttpEntityEnclosingRequest) httpMethod).getEntity();
+      return entity == null || entity.isRepeatable();
+    }
+    return true;
+  }
+
+  /**
+   * The access key id is part of the keys, as the registration and the visibility of an artifact depend on
+   * the credentials
+   */
+  private String registerCacheKey(Artifact artifact) {
+    return String.format("%s|%s|%s/%s",
+        getRepository().getUrl(), getAccessKeyId(), artifact.getGroupId(), artifact.getArtifactId());
+  }
+
+  private String groupCacheKey(Artifact artifact) {
+    return String.format("%s|%s|%s", getRepository().getUrl(), getAccessKeyId(), artifact.getGroupId());
+  }
+
+  private String getAccessKeyId() {
+    Properties properties = getCredentialsProperties();
+    return properties == null ? null : properties.getProperty(HERE_ACCESS_ID_KEY);
+  }
+
   private Artifact toArtifact(String url) {
     String[] parts = url.split("/");
     if (parts.length != 4) {
@@ -442,7 +858,7 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
         "%s:%s:%s/%s", groupHrnPrefix, artifact.getArtifactId(), version, artifact.getFile());
   }
 
-  private String mintAuthorizationToken(Properties properties) {
+  private AccessToken mintAccessToken(Properties properties) {
     LOG.trace("Attempting to authenticate with HERE Account");
 
     try {
@@ -451,11 +867,7 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
         throw new IllegalArgumentException(
             String.format("No %s property specified", HERE_ENDPOINT_URL_KEY));
       }
-      ClientAuthorizationRequestProvider credentialsProvider =
-          new OAuth1ClientCredentialsProvider.FromProperties(properties);
-      HttpProvider httpProvider = createHttpProvider(endpointUrl);
-      TokenEndpoint tokenEndpoint = HereAccount.getTokenEndpoint(httpProvider, credentialsProvider);
-      return tokenEndpoint.requestToken(new ClientCredentialsGrantRequest()).getAccessToken();
+      return HereTokenMinter.mint(properties, getHttpProvider(endpointUrl));
     } catch (Exception exp) {
       throw new HereAuthenticationException("Error authenticating HERE credentials", exp);
     }
@@ -528,14 +940,42 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
     return file;
   }
 
+  /**
+   * Return the HttpProvider to use for HereAccount, reusing the one of the endpoint and proxy settings
+   * so that token mints reuse pooled connections
+   *
+   * @param endpointUrl token endpoint URL
+   * @return the shared HttpProvider
+   */
+  HttpProvider getHttpProvider(String endpointUrl) {
+    URI endpointUri = URI.create(endpointUrl);
+    ProxyInfo proxyInfo = getProxyInfo(endpointUri.getScheme(), endpointUri.getHost());
+    return HTTP_PROVIDERS.computeIfAbsent(getHttpProviderKey(endpointUrl), k -> createHttpProvider(proxyInfo));
+  }
+
+  /**
+   * @param endpointUrl token endpoint URL
+   * @return key of the token endpoint and the proxy settings used to reach it
+   */
+  String getHttpProviderKey(String endpointUrl) {
+    URI endpointUri = URI.create(endpointUrl);
+    ProxyInfo proxyInfo = getProxyInfo(endpointUri.getScheme(), endpointUri.getHost());
+    String key = String.format("%s://%s:%d", endpointUri.getScheme(), endpointUri.getHost(), endpointUri.getPort());
+    if (proxyInfo != null) {
+      key += String.format("|%s:%d|%s|%d", proxyInfo.getHost(), proxyInfo.getPort(), proxyInfo.getUserName(),
+          Objects.hashCode(proxyInfo.getPassword()));
+    }
+    return key;
+  }
+
   /**
    * Create the HttpProvider to use for HereAccount. This must add in any proxy settings that maven
    * is aware of and forward them into the underlying http client
    *
-   * @param endpointUrl
-   * @return
+   * @param proxyInfo proxy of the token endpoint or {@code null}
+   * @return the HttpProvider
    */
-  private HttpProvider createHttpProvider(final String endpointUrl) {
+  private HttpProvider createHttpProvider(ProxyInfo proxyInfo) {
     // default configuration
     RequestConfig.Builder requestConfigBuilder =
         RequestConfig.custom()
@@ -544,8 +984,6 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
 
     // push in proxy information to the underlying http client
     CredentialsProvider credentialsProvider = null;
-    URI endpointUri = URI.create(endpointUrl);
-    ProxyInfo proxyInfo = getProxyInfo(endpointUri.getScheme(), endpointUri.getHost());
     if (proxyInfo != null) {
       LOG.debug("Found proxy information: {}:{}", proxyInfo.getHost(), proxyInfo.getPort());
       requestConfigBuilder.setProxy(new HttpHost(proxyInfo.getHost(), proxyInfo.getPort()));
@@ -560,13 +998,23 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
 
     HttpClientBuilder clientBuilder =
         HttpClientBuilder.create().setDefaultRequestConfig(requestConfigBuilder.build());
+    if (SharedConnectionPool.shared().isEnabled()) {
+      SharedConnectionPool.shared().configure(clientBuilder);
+    } else {
+      // keep the connections alive between token mints
+      PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+      connectionManager.setMaxTotal(OAUTH_MAX_CONNECTIONS);
+      connectionManager.setDefaultMaxPerRoute(OAUTH_MAX_CONNECTIONS);
+      clientBuilder.setConnectionManager(connectionManager);
+    }
     if (credentialsProvider != null) {
       clientBuilder.setDefaultCredentialsProvider(credentialsProvider);
     }
 
+    // the client is shared by all token mints of the JVM and is never closed
     return ApacheHttpClientProvider.builder()
         .setHttpClient(clientBuilder.build())
-        .setDoCloseHttpClient(true)
+        .setDoCloseHttpClient(false)
         .build();
   }
 
@@ -589,9 +1037,8 @@ public class ArtifactWagon extends AbstractHttpClientWagon {
    * @see <a href="https://github.com/apache/maven-wagon/pull/57">WAGON-567</a>
    */
   private void setRetryStrategy() throws IllegalAccessException {
-    CloseableHttpClient httpClient = getHttpClient();
-    ClientExecChain clientExecChain = (ClientExecChain) ReflectionUtils.getValueIncludingSuperclasses("execChain", httpClient);
-    ServiceUnavailableRetryExec serviceUnavailableRetryExec = new ServiceUnavailableRetryExec(clientExecChain, new XRateLimitServiceUnavailableRetryStrategy());
-    ReflectionUtils.setVariableValueInObject(httpClient, "execChain", serviceUnavailableRetryExec);
+    // the client is shared by all wagon instances, its chain is wrapped only once
+    RateLimitRetryExec.install(getHttpClient(), new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy()));
   }
+
 }
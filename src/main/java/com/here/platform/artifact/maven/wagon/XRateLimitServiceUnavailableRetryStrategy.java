@@ -18,14 +18,21 @@
  */
 package com.here.platform.artifact.maven.wagon;
 
+import com.here.platform.artifact.maven.wagon.http.RateLimitGate;
+import com.here.platform.artifact.maven.wagon.http.TransferDeadline;
 import org.apache.http.Header;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
 import org.apache.maven.wagon.shared.http.StandardServiceUnavailableRetryStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Date;
 import java.util.regex.Pattern;
 
 /**
@@ -34,6 +41,13 @@ import java.util.regex.Pattern;
  * and {@code 500} (Server side error) responses for a fixed number of times at
  * a interval returned in X-RateLimit-Reset or Retry-After header.
  * X-RateLimit-Reset have precedence over Retry-After.
+ * A {@code 429} or {@code 503} response with one of these headers pauses all requests
+ * to the host via the {@link RateLimitGate}. X-RateLimit-Limit and X-RateLimit-Remaining headers of any response
+ * let the gate pace the requests before the quota runs out.
+ * A response is not retried if the retry can't be sent before the {@link TransferDeadline}.
+ * The retry interval depends on the response, use {@link #getRetryInterval(HttpResponse)}. {@link #getRetryInterval()}
+ * still returns the interval of the response last retried by {@link #retryRequest} on the calling thread, the response
+ * is kept on the thread only until its interval is read.
  */
 public class XRateLimitServiceUnavailableRetryStrategy extends StandardServiceUnavailableRetryStrategy {
 
@@ -51,6 +65,16 @@ public class XRateLimitServiceUnavailableRetryStrategy extends StandardServiceUn
    */
   public static final String RETRY_AFTER_HEADER = "Retry-After";
 
+  /**
+   * The response HTTP header indicates the number of requests allowed until the rate limit resets
+   */
+  public static final String X_RATE_LIMIT_LIMIT_HEADER = "X-RateLimit-Limit";
+
+  /**
+   * The response HTTP header indicates the number of requests left until the rate limit resets
+   */
+  public static final String X_RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+
   /**
    * Maximum retries for requests that failed with {@code 408} (Request Timeout), {@code 429} (Too Many Requests),
    * and {@code 500} (Server side error) response code
@@ -64,40 +88,132 @@ public class XRateLimitServiceUnavailableRetryStrategy extends StandardServiceUn
 
   private static final Pattern DIGIT_PATTERN = Pattern.compile("\\d+");
 
+  private final RateLimitGate rateLimitGate;
+
+  /**
+   * The response to retry on the thread, until its interval is read
+   */
   private final ThreadLocal<HttpResponse> currentResponse = new ThreadLocal<>();
 
   public XRateLimitServiceUnavailableRetryStrategy() {
+    this(RateLimitGate.shared());
+  }
+
+  public XRateLimitServiceUnavailableRetryStrategy(RateLimitGate rateLimitGate) {
     super(MAX_RETRIES, DEFAULT_RETRY_INTERVAL_MS);
+    this.rateLimitGate = rateLimitGate;
   }
 
   @Override
   public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
+    this.currentResponse.remove();
+    Object host = context == null ? null : context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST);
+    int statusCode = response.getStatusLine().getStatusCode();
+    long rateLimitReset = -1;
+    if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE) {
+      rateLimitReset = getRateLimitReset(response);
+      if (host instanceof HttpHost && rateLimitReset >= 0) {
+        rateLimitGate.pause(((HttpHost) host).getHostName(), rateLimitReset);
+      }
+    } else if (host instanceof HttpHost) {
+      updateQuota(((HttpHost) host).getHostName(), response);
+    }
+    if (!super.retryRequest(response, executionCount, context)) {
+      return false;
+    }
+    long retryInterval = rateLimitReset >= 0 ? rateLimitReset : super.getRetryInterval();
+    if (retryInterval >= TransferDeadline.remainingMillis()) {
+      LOG.info("Request is failed with code {}. Not retrying as the transfer can't complete within its deadline", statusCode);
+      return false;
+    }
     this.currentResponse.set(response);
-    return super.retryRequest(response, executionCount, context);
+    return true;
   }
 
+  /**
+   * Return the interval before retrying the response
+   *
+   * @param response the response to retry
+   * @return the interval in milliseconds from the X-RateLimit-Reset or Retry-After header or the default interval
+   */
+  public long getRetryInterval(HttpResponse response) {
+    this.currentResponse.remove();
+    long rateLimitReset = getRateLimitReset(response);
+    if (rateLimitReset >= 0) {
+      LOG.info("Request is failed with code {}. Retrying in {} seconds", response.getStatusLine().getStatusCode(), rateLimitReset / 1000);
+      return rateLimitReset;
+    }
+    return super.getRetryInterval();
+  }
+
+  /**
+   * Return the interval before retrying the response last retried by {@link #retryRequest} on the calling thread
+   *
+   * @return the interval in milliseconds from the X-RateLimit-Reset or Retry-After header or the default interval
+   * @deprecated the interval is bound to the thread which asked whether to retry,
+   * use {@link #getRetryInterval(HttpResponse)} instead
+   */
+  @Deprecated
   @Override
   public long getRetryInterval() {
     HttpResponse httpResponse = currentResponse.get();
-    if (httpResponse != null) {
-      try {
-        Header waitHeader = httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER) ?
-            httpResponse.getFirstHeader(X_RATE_LIMIT_RESET_HEADER)
-            : httpResponse.getFirstHeader(RETRY_AFTER_HEADER);
-        if (waitHeader != null) {
-          String value = waitHeader.getValue();
-          if(value != null && DIGIT_PATTERN.matcher(value).matches()) {
-            LOG.info("Request is failed with code {}. Retrying in {} seconds", httpResponse.getStatusLine().getStatusCode(), value);
-            return Long.parseLong(value) * 1000;
-          } else {
-            LOG.warn("Header {} have value {} but numeric value expected", waitHeader.getName(), waitHeader.getValue() );
-          }
+    try {
+      return httpResponse == null ? super.getRetryInterval() : getRetryInterval(httpResponse);
+    } finally {
+      currentResponse.remove();
+    }
+  }
+
+  /**
+   * Whether the response throttles the client rather than reporting a failure of the host
+   *
+   * @param response the response
+   * @return {@code true} for {@code 429} responses and {@code 503} responses telling when to retry
+   */
+  public boolean isRateLimited(HttpResponse response) {
+    int statusCode = response.getStatusLine().getStatusCode();
+    return statusCode == HttpStatus.SC_TOO_MANY_REQUESTS
+        || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE && getRateLimitReset(response) >= 0;
+  }
+
+  /**
+   * @return the time until the rate limit resets in milliseconds or {@code -1} if the response doesn't tell
+   */
+  private long getRateLimitReset(HttpResponse response) {
+    try {
+      Header waitHeader = response.containsHeader(X_RATE_LIMIT_RESET_HEADER) ?
+          response.getFirstHeader(X_RATE_LIMIT_RESET_HEADER)
+          : response.getFirstHeader(RETRY_AFTER_HEADER);
+      if (waitHeader != null) {
+        String value = waitHeader.getValue();
+        if(value != null && DIGIT_PATTERN.matcher(value).matches()) {
+          return Long.parseLong(value) * 1000;
+        }
+        Date date = value == null ? null : DateUtils.parseDate(value);
+        if (date != null) {
+          return Math.max(0, date.getTime() - System.currentTimeMillis());
         }
-      } catch (Exception e) {
-        LOG.warn("Unexpected exception occurred. Fallback to standard retry logic", e);
+        LOG.warn("Header {} have value {} but numeric value or HTTP-date expected", waitHeader.getName(), waitHeader.getValue() );
       }
+    } catch (Exception e) {
+      LOG.warn("Unexpected exception occurred. Fallback to standard retry logic", e);
     }
-    return super.getRetryInterval();
+    return -1;
+  }
+
+  private void updateQuota(String host, HttpResponse response) {
+    long limit = getNumericHeader(response, X_RATE_LIMIT_LIMIT_HEADER);
+    long remaining = getNumericHeader(response, X_RATE_LIMIT_REMAINING_HEADER);
+    if (limit > 0 && remaining >= 0) {
+      long reset = getNumericHeader(response, X_RATE_LIMIT_RESET_HEADER);
+      rateLimitGate.updateQuota(host, limit, remaining, reset < 0 ? -1 : reset * 1000);
+    }
+  }
+
+  private static long getNumericHeader(HttpResponse response, String name) {
+    Header header = response.getFirstHeader(name);
+    String value = header == null ? null : header.getValue();
+    return value != null && DIGIT_PATTERN.matcher(value).matches() ? Long.parseLong(value) : -1;
   }
 
 }
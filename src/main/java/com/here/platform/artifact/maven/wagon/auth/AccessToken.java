@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Bearer token with its expiry time.
+ */
+public final class AccessToken {
+
+  private final String value;
+  private final long expiresAt;
+
+  /**
+   * @param value bearer token
+   * @param expiresAt expiry time in milliseconds since the epoch, {@link Long#MAX_VALUE} if the token doesn't expire
+   */
+  @JsonCreator
+  public AccessToken(@JsonProperty("value") String value, @JsonProperty("expiresAt") long expiresAt) {
+    this.value = value;
+    this.expiresAt = expiresAt;
+  }
+
+  /**
+   * Create a token from a token endpoint response
+   *
+   * @param value bearer token
+   * @param expiresInSeconds lifetime of the token or {@code null} if unknown
+   * @param now current time in milliseconds since the epoch
+   * @return the token
+   */
+  public static AccessToken of(String value, Long expiresInSeconds, long now) {
+    if (expiresInSeconds == null || expiresInSeconds <= 0) {
+      return new AccessToken(value, Long.MAX_VALUE);
+    }
+    return new AccessToken(value, now + expiresInSeconds * 1000);
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  public boolean isExpired(long now) {
+    return expiresAt <= now;
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import com.here.platform.artifact.maven.wagon.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current bearer token. Readers get the token without locking, the token is minted
+ * on first use and refreshed in the background after 80% of its lifetime.
+ * Concurrent mints are coalesced into a single call to the token endpoint.
+ */
+public class AccessTokenHolder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AccessTokenHolder.class);
+
+  static final double REFRESH_RATIO = 0.8;
+  private static final String MINT_KEY = "token";
+
+  /**
+   * NOTE: The variable is static so that all wagon instances in the JVM share a single refresh thread.
+   */
+  private static final ScheduledExecutorService SHARED_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "artifact-wagon-token-refresh");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Supplier<AccessToken> minter;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier clock;
+  private final AtomicReference<AccessToken> current = new AtomicReference<>();
+  private final SingleFlight<String, AccessToken> mints = new SingleFlight<>();
+
+  /**
+   * Whether the token was read since it was minted. Tokens nobody reads are not refreshed in the background.
+   */
+  private volatile boolean accessed;
+  private ScheduledFuture<?> scheduledRefresh;
+
+  /**
+   * @param minter mints a new token, may throw a runtime exception
+   */
+  public AccessTokenHolder(Supplier<AccessToken> minter) {
+    this(minter, SHARED_SCHEDULER, System::currentTimeMillis);
+  }
+
+  AccessTokenHolder(Supplier<AccessToken> minter, ScheduledExecutorService scheduler, LongSupplier clock) {
+    this.minter = minter;
+    this.scheduler = scheduler;
+    this.clock = clock;
+  }
+
+  /**
+   * Return the current token, minting a new one if there is none yet or it expired
+   *
+   * @return bearer token
+   */
+  public String get() {
+    return getToken().getValue();
+  }
+
+  /**
+   * Return the current token with its expiry time, minting a new one if there is none yet or it expired
+   *
+   * @return the token
+   */
+  public AccessToken getToken() {
+    AccessToken token = current.get();
+    if (token == null || token.isExpired(clock.getAsLong())) {
+      token = mint(token);
+    }
+    if (!accessed) {
+      accessed = true;
+    }
+    return token;
+  }
+
+  /**
+   * Mint a new token after the given one was rejected, unless it was already replaced meanwhile
+   *
+   * @param rejectedToken the token rejected by the server
+   * @return bearer token
+   */
+  public String refresh(String rejectedToken) {
+    AccessToken token = current.get();
+    if (token != null && !token.getValue().equals(rejectedToken) && !token.isExpired(clock.getAsLong())) {
+      return token.getValue();
+    }
+    return mint(token).getValue();
+  }
+
+  /**
+   * Mint a new token unless the expected one was already replaced by a valid token
+   */
+  private AccessToken mint(AccessToken expected) {
+    try {
+      return mints.execute(MINT_KEY, () -> {
+        AccessToken token = current.get();
+        if (token != expected && token != null && !token.isExpired(clock.getAsLong())) {
+          return token;
+        }
+        long mintedAt = clock.getAsLong();
+        token = minter.get();
+        current.set(token);
+        accessed = false;
+        scheduleRefresh(token, mintedAt);
+        return token;
+      });
+    } catch (RuntimeException exp) {
+      throw exp;
+    } catch (IOException exp) {
+      // e.g. the transfer deadline passed while waiting for the mint of another thread
+      throw new UncheckedIOException(exp);
+    } catch (Exception exp) {
+      throw new IllegalStateException(exp);
+    }
+  }
+
+  private synchronized void scheduleRefresh(AccessToken token, long mintedAt) {
+    if (scheduledRefresh != null) {
+      scheduledRefresh.cancel(false);
+      scheduledRefresh = null;
+    }
+    if (token.getExpiresAt() == Long.MAX_VALUE) {
+      return;
+    }
+    long delay = (long) ((token.getExpiresAt() - mintedAt) * REFRESH_RATIO);
+    scheduledRefresh = scheduler.schedule(() -> refreshInBackground(token), Math.max(delay, 0), TimeUnit.MILLISECONDS);
+  }
+
+  private void refreshInBackground(AccessToken token) {
+    if (!accessed) {
+      LOG.debug("Token was not used since it was minted, skipping the refresh");
+      return;
+    }
+    try {
+      mint(token);
+    } catch (RuntimeException exp) {
+      // keep the current token until it expires, readers mint a new one afterwards
+      LOG.debug("Unable to refresh the token in the background", exp);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.here.platform.artifact.maven.wagon.util.StringUtils.sha256;
+
+/**
+ * Token holders keyed by token endpoint, access key id, access key secret and the connection used to mint,
+ * so that all wagons using the same credentials and proxy settings share one token.
+ * The secret is part of the key only as a SHA-256 digest.
+ * The registry keeps the {@link #MAX_HOLDERS} most recently used holders, the holders of other credentials
+ * are dropped with their minters.
+ */
+public class AccessTokenRegistry {
+
+  static final int MAX_HOLDERS = 64;
+
+  /**
+   * NOTE: The variable is static so that all wagon instances in the JVM share the tokens.
+   */
+  private static final AccessTokenRegistry SHARED = new AccessTokenRegistry();
+
+  private final Map<String, AccessTokenHolder> holders;
+
+  public AccessTokenRegistry() {
+    this(MAX_HOLDERS);
+  }
+
+  AccessTokenRegistry(int maxHolders) {
+    this.holders = new LinkedHashMap<String, AccessTokenHolder>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, AccessTokenHolder> eldest) {
+        return size() > maxHolders;
+      }
+    };
+  }
+
+  public static AccessTokenRegistry shared() {
+    return SHARED;
+  }
+
+  /**
+   * Return the token holder of the credentials, creating it on first use
+   *
+   * @param endpointUrl token endpoint URL
+   * @param accessKeyId access key id
+   * @param accessKeySecret access key secret
+   * @param connectionKey identity of the connection the minter uses, e.g. the proxy settings, or {@code null}
+   * @param minter mints a new token for the credentials, used only if the holder is created
+   * @return the shared token holder
+   */
+  public AccessTokenHolder getHolder(String endpointUrl, String accessKeyId, String accessKeySecret,
+      String connectionKey, Supplier<AccessToken> minter) {
+    String key = key(endpointUrl, accessKeyId, accessKeySecret, connectionKey);
+    synchronized (holders) {
+      return holders.computeIfAbsent(key, k -> new AccessTokenHolder(minter));
+    }
+  }
+
+  public int size() {
+    synchronized (holders) {
+      return holders.size();
+    }
+  }
+
+  static String key(String endpointUrl, String accessKeyId, String accessKeySecret, String connectionKey) {
+    return String.format("%s|%s|%s|%s", endpointUrl, accessKeyId, sha256(accessKeySecret), connectionKey);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Sets the {@code Authorization} header of the current token. The header is formatted once per token
+ * and shared by all requests, so setting it neither allocates nor touches state shared with other threads.
+ */
+public class BearerAuthorizationInterceptor implements HttpRequestInterceptor {
+
+  public static final String BEARER_PREFIX = "Bearer ";
+
+  private final Supplier<AccessTokenHolder> accessToken;
+  private final AtomicReference<BearerHeader> current = new AtomicReference<>();
+
+  /**
+   * @param accessToken supplies the holder of the current token
+   */
+  public BearerAuthorizationInterceptor(Supplier<AccessTokenHolder> accessToken) {
+    this.accessToken = accessToken;
+  }
+
+  @Override
+  public void process(HttpRequest request, HttpContext context) throws IOException {
+    try {
+      request.setHeader(getHeader());
+    } catch (UncheckedIOException exp) {
+      throw exp.getCause();
+    }
+  }
+
+  /**
+   * @return the {@code Authorization} header of the current token
+   */
+  public Header getHeader() {
+    String token = accessToken.get().get();
+    BearerHeader header = current.get();
+    // the holder returns the same instance until the token is replaced
+    if (header == null || header.token != token) {
+      header = new BearerHeader(token);
+      current.set(header);
+    }
+    return header.header;
+  }
+
+  private static final class BearerHeader {
+
+    private final String token;
+    private final Header header;
+
+    private BearerHeader(String token) {
+      this.token = token;
+      this.header = new BasicHeader(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + token);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.cache.FileCache;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Tokens shared by all Maven processes of the user via a file readable by the owner only,
+ * keyed by token endpoint and access key id. Only one process mints a token at a time, the others wait for it and
+ * reuse it. A process which can't get the token within a bounded wait mints its own. Entries expire when the holders
+ * refresh the token, so that a refresh mints a new token instead of reading the old one.
+ * The cache is disabled unless the {@code hereTokenDiskCache} system property is {@code true}.
+ */
+public class FileAccessTokenCache {
+
+  private static final String ENABLED_PROPERTY = "hereTokenDiskCache";
+  private static final String FILE_NAME = "artifact_wagon_token_cache.json";
+
+  /**
+   * NOTE: The variable is static so that all wagon instances in the JVM use the same file cache.
+   */
+  private static final FileAccessTokenCache SHARED = fromSystemProperties();
+
+  private final FileCache<AccessToken> fileCache;
+  private final LongSupplier clock;
+
+  /**
+   * @param fileCache file cache or {@code null} to disable the cache
+   */
+  public FileAccessTokenCache(FileCache<AccessToken> fileCache) {
+    this(fileCache, System::currentTimeMillis);
+  }
+
+  FileAccessTokenCache(FileCache<AccessToken> fileCache, LongSupplier clock) {
+    this.fileCache = fileCache;
+    this.clock = clock;
+  }
+
+  public static FileAccessTokenCache shared() {
+    return SHARED;
+  }
+
+  /**
+   * Decorate the minter so that it reuses the token cached by another process
+   *
+   * @param endpointUrl token endpoint URL
+   * @param accessKeyId access key id
+   * @param minter mints a new token
+   * @return the decorated minter or the given one if the cache is disabled
+   */
+  public Supplier<AccessToken> withCache(String endpointUrl, String accessKeyId, Supplier<AccessToken> minter) {
+    if (fileCache == null) {
+      return minter;
+    }
+    String key = key(endpointUrl, accessKeyId);
+    return () -> fileCache.computeIfAbsent(key, minter, this::ttlMillis);
+  }
+
+  /**
+   * Forget the cached token after it was rejected by the server, unless another process already replaced it
+   *
+   * @param endpointUrl token endpoint URL
+   * @param accessKeyId access key id
+   * @param rejectedToken the token rejected by the server
+   */
+  public void invalidate(String endpointUrl, String accessKeyId, String rejectedToken) {
+    if (fileCache != null) {
+      fileCache.remove(key(endpointUrl, accessKeyId), token -> token.getValue().equals(rejectedToken));
+    }
+  }
+
+  private long ttlMillis(AccessToken token) {
+    if (token.getExpiresAt() == Long.MAX_VALUE) {
+      // the lifetime is unknown, let every process mint its own token
+      return 0;
+    }
+    return (long) ((token.getExpiresAt() - clock.getAsLong()) * AccessTokenHolder.REFRESH_RATIO);
+  }
+
+  private static String key(String endpointUrl, String accessKeyId) {
+    return String.format("%s|%s", endpointUrl, accessKeyId);
+  }
+
+  private static FileAccessTokenCache fromSystemProperties() {
+    FileCache<AccessToken> fileCache = null;
+    if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+      fileCache = new FileCache<>(FileCache.getCacheDir().resolve(FILE_NAME), AccessToken.class, new ObjectMapper());
+    }
+    return new FileAccessTokenCache(fileCache);
+  }
+}
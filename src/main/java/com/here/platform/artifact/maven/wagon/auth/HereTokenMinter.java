@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import com.here.account.auth.OAuth1ClientCredentialsProvider;
+import com.here.account.http.HttpProvider;
+import com.here.account.oauth2.AccessTokenResponse;
+import com.here.account.oauth2.ClientAuthorizationRequestProvider;
+import com.here.account.oauth2.ClientCredentialsGrantRequest;
+import com.here.account.oauth2.HereAccount;
+import com.here.account.oauth2.TokenEndpoint;
+
+import java.util.Properties;
+
+/**
+ * Mints tokens with HERE Account using the client credentials grant.
+ */
+public final class HereTokenMinter {
+
+  public static final String HERE_ENDPOINT_URL_KEY = "here.token.endpoint.url";
+  public static final String HERE_ACCESS_ID_KEY = "here.access.key.id";
+  public static final String HERE_ACCESS_SECRET_KEY = "here.access.key.secret";
+
+  private HereTokenMinter() {
+  }
+
+  /**
+   * Mint a new token
+   *
+   * @param properties HERE credentials
+   * @param httpProvider provider of the HTTP client used to call the token endpoint
+   * @return the minted token
+   * @throws Exception if the credentials are invalid or the token endpoint can't be reached
+   */
+  public static AccessToken mint(Properties properties, HttpProvider httpProvider) throws Exception {
+    if (properties.getProperty(HERE_ENDPOINT_URL_KEY) == null) {
+      throw new IllegalArgumentException(String.format("No %s property specified", HERE_ENDPOINT_URL_KEY));
+    }
+    ClientAuthorizationRequestProvider credentialsProvider =
+        new OAuth1ClientCredentialsProvider.FromProperties(properties);
+    TokenEndpoint tokenEndpoint = HereAccount.getTokenEndpoint(httpProvider, credentialsProvider);
+    AccessTokenResponse tokenResponse = tokenEndpoint.requestToken(new ClientCredentialsGrantRequest());
+    return AccessToken.of(tokenResponse.getAccessToken(), tokenResponse.getExpiresIn(), System.currentTimeMillis());
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.broker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.here.account.http.HttpProvider;
+import com.here.account.http.apache.ApacheHttpClientProvider;
+import com.here.platform.artifact.maven.wagon.auth.AccessToken;
+import com.here.platform.artifact.maven.wagon.auth.AccessTokenHolder;
+import com.here.platform.artifact.maven.wagon.auth.AccessTokenRegistry;
+import com.here.platform.artifact.maven.wagon.auth.HereTokenMinter;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Token broker serving one refreshed token per credential set to all builds of the user over a Unix domain socket.
+ * Each request is a single JSON line with the HERE credentials and optionally the token rejected by the server,
+ * the response is a single JSON line with the token or an error message.
+ * The socket is created in a directory accessible by its owner only, so that no other user can connect to it.
+ *
+ * <p>Start the broker with {@code java -cp <classpath> com.here.platform.artifact.maven.wagon.broker.TokenBroker [socket]}
+ * or {@code mvn exec:java} in the project, the socket defaults to {@code ~/.here/token-broker/token-broker.sock}.
+ */
+public class TokenBroker implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TokenBroker.class);
+
+  static final String CREDENTIALS_FIELD = "credentials";
+  static final String REJECTED_TOKEN_FIELD = "rejectedToken";
+  static final String TOKEN_FIELD = "token";
+  static final String ERROR_FIELD = "error";
+
+  private static final int OAUTH_TIMEOUT_IN_MS = 20000;
+
+  private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+  private final Path socketPath;
+  private final Function<Properties, AccessToken> minter;
+  private final AccessTokenRegistry registry = new AccessTokenRegistry();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "token-broker");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private ServerSocketChannel serverChannel;
+
+  /**
+   * @param socketPath path of the Unix domain socket
+   * @param minter mints a token for the given credentials
+   */
+  public TokenBroker(Path socketPath, Function<Properties, AccessToken> minter) {
+    this.socketPath = socketPath;
+    this.minter = minter;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Path socketPath = args.length > 0 ? Paths.get(args[0]) : TokenBrokerClient.getDefaultSocketPath();
+    HttpProvider httpProvider = createHttpProvider();
+    TokenBroker broker = new TokenBroker(socketPath, properties -> {
+      try {
+        return HereTokenMinter.mint(properties, httpProvider);
+      } catch (RuntimeException exp) {
+        throw exp;
+      } catch (Exception exp) {
+        throw new IllegalStateException("Error authenticating HERE credentials", exp);
+      }
+    });
+    Runtime.getRuntime().addShutdownHook(new Thread(broker::closeQuietly));
+    broker.start();
+    LOG.info("Token broker listening on {}", socketPath);
+    Thread.currentThread().join();
+  }
+
+  /**
+   * Bind the socket and serve the requests in the background
+   *
+   * @throws IOException if the socket can't be bound
+   */
+  public synchronized void start() throws IOException {
+    createPrivateDirectory(socketPath.toAbsolutePath().getParent());
+    // remove the socket of a broker which was not shut down cleanly
+    Files.deleteIfExists(socketPath);
+    serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+    ServerSocketChannel channel = serverChannel;
+    executor.execute(() -> accept(channel));
+  }
+
+  /**
+   * Create the directory of the socket accessible by its owner only. The socket is created with the permissions
+   * of the umask, the directory keeps other users from connecting to it.
+   *
+   * @throws IOException if the directory can't be created or is accessible by other users
+   */
+  private static void createPrivateDirectory(Path directory) throws IOException {
+    if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createDirectories(directory);
+      return;
+    }
+    if (!Files.isDirectory(directory)) {
+      Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+    }
+    if (!OWNER_ONLY.containsAll(Files.getPosixFilePermissions(directory))) {
+      throw new IOException("Directory " + directory + " of the token broker socket must be accessible by its owner only");
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (serverChannel != null) {
+      serverChannel.close();
+      serverChannel = null;
+      Files.deleteIfExists(socketPath);
+    }
+    executor.shutdownNow();
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (IOException exp) {
+      LOG.debug("Unable to close the token broker", exp);
+    }
+  }
+
+  private void accept(ServerSocketChannel channel) {
+    while (channel.isOpen()) {
+      try {
+        SocketChannel client = channel.accept();
+        executor.execute(() -> serve(client));
+      } catch (IOException exp) {
+        if (channel.isOpen()) {
+          LOG.warn("Unable to accept a token broker connection", exp);
+        }
+      }
+    }
+  }
+
+  private void serve(SocketChannel client) {
+    try (SocketChannel ignored = client;
+         BufferedReader reader = new BufferedReader(
+             new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+         OutputStream out = Channels.newOutputStream(client)) {
+      String line = reader.readLine();
+      if (line == null) {
+        return;
+      }
+      ObjectNode response = handle(line);
+      out.write((objectMapper.writeValueAsString(response) + "\n").getBytes(StandardCharsets.UTF_8));
+      out.flush();
+    } catch (IOException exp) {
+      LOG.debug("Token broker connection failed", exp);
+    }
+  }
+
+  private ObjectNode handle(String line) {
+    ObjectNode response = objectMapper.createObjectNode();
+    try {
+      JsonNode request = objectMapper.readTree(line);
+      Properties properties = toProperties(request.path(CREDENTIALS_FIELD));
+      AccessTokenHolder holder = registry.getHolder(
+          properties.getProperty(HereTokenMinter.HERE_ENDPOINT_URL_KEY),
+          properties.getProperty(HereTokenMinter.HERE_ACCESS_ID_KEY),
+          properties.getProperty(HereTokenMinter.HERE_ACCESS_SECRET_KEY),
+          null,
+          () -> minter.apply(properties));
+      JsonNode rejectedToken = request.get(REJECTED_TOKEN_FIELD);
+      if (rejectedToken != null && rejectedToken.isTextual()) {
+        holder.refresh(rejectedToken.asText());
+      }
+      response.set(TOKEN_FIELD, objectMapper.valueToTree(holder.getToken()));
+    } catch (Exception exp) {
+      LOG.warn("Unable to serve a token", exp);
+      response.put(ERROR_FIELD, String.valueOf(exp.getMessage()));
+    }
+    return response;
+  }
+
+  private static Properties toProperties(JsonNode credentials) {
+    Properties properties = new Properties();
+    Iterator<Map.Entry<String, JsonNode>> fields = credentials.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      properties.setProperty(field.getKey(), field.getValue().asText());
+    }
+    return properties;
+  }
+
+  private static HttpProvider createHttpProvider() {
+    RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout(OAUTH_TIMEOUT_IN_MS)
+        .setConnectionRequestTimeout(OAUTH_TIMEOUT_IN_MS)
+        .build();
+    // the client is shared by all token mints of the broker
+    return ApacheHttpClientProvider.builder()
+        .setHttpClient(HttpClientBuilder.create().useSystemProperties().setDefaultRequestConfig(requestConfig).build())
+        .setDoCloseHttpClient(false)
+        .build();
+  }
+}
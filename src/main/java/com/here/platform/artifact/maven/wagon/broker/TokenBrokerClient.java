@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.broker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.here.platform.artifact.maven.wagon.auth.AccessToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * Client of the {@link TokenBroker}. The broker is used only if its socket exists,
+ * otherwise or if the broker fails the token is minted by the wagon itself.
+ */
+public class TokenBrokerClient {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TokenBrokerClient.class);
+
+  private static final String SOCKET_PROPERTY = "hereTokenBrokerSocket";
+  private static final String DEFAULT_SOCKET = ".here/token-broker/token-broker.sock";
+  private static final long TIMEOUT_IN_MS = 30000;
+
+  /**
+   * NOTE: The variable is static so that all wagon instances in the JVM use the same broker.
+   */
+  private static final TokenBrokerClient SHARED = new TokenBrokerClient(getSocketPath());
+
+  private final Path socketPath;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  public TokenBrokerClient(Path socketPath) {
+    this.socketPath = socketPath;
+  }
+
+  public static TokenBrokerClient shared() {
+    return SHARED;
+  }
+
+  /**
+   * @return the default socket path {@code ~/.here/token-broker/token-broker.sock}
+   */
+  public static Path getDefaultSocketPath() {
+    return Paths.get(System.getProperty("user.home"), DEFAULT_SOCKET);
+  }
+
+  /**
+   * Decorate the minter so that the token is obtained from the broker if it is running
+   *
+   * @param properties HERE credentials
+   * @param minter mints a token if the broker is not running or fails
+   * @return the decorated minter
+   */
+  public Supplier<AccessToken> withBroker(Properties properties, Supplier<AccessToken> minter) {
+    return () -> {
+      if (Files.exists(socketPath)) {
+        try {
+          return request(properties, null);
+        } catch (IOException exp) {
+          LOG.debug("Unable to obtain a token from the broker at {}, minting it", socketPath, exp);
+        }
+      }
+      return minter.get();
+    };
+  }
+
+  /**
+   * Let the broker replace a token rejected by the server
+   *
+   * @param properties HERE credentials
+   * @param rejectedToken the rejected token
+   */
+  public void invalidate(Properties properties, String rejectedToken) {
+    if (rejectedToken != null && Files.exists(socketPath)) {
+      try {
+        request(properties, rejectedToken);
+      } catch (IOException exp) {
+        LOG.debug("Unable to replace the token via the broker at {}", socketPath, exp);
+      }
+    }
+  }
+
+  private AccessToken request(Properties properties, String rejectedToken) throws IOException {
+    ObjectNode request = objectMapper.createObjectNode();
+    ObjectNode credentials = request.putObject(TokenBroker.CREDENTIALS_FIELD);
+    for (String name : properties.stringPropertyNames()) {
+      credentials.put(name, properties.getProperty(name));
+    }
+    if (rejectedToken != null) {
+      request.put(TokenBroker.REJECTED_TOKEN_FIELD, rejectedToken);
+    }
+
+    JsonNode response;
+    try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+      ByteBuffer buffer = ByteBuffer.wrap((objectMapper.writeValueAsString(request) + "\n").getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      response = objectMapper.readTree(readLine(channel));
+    }
+
+    if (response == null || response.get(TokenBroker.TOKEN_FIELD) == null) {
+      String error = response == null ? "no response" : response.path(TokenBroker.ERROR_FIELD).asText();
+      throw new IOException("Token broker failed: " + error);
+    }
+    JsonNode token = response.get(TokenBroker.TOKEN_FIELD);
+    return objectMapper.treeToValue(token, AccessToken.class);
+  }
+
+  /**
+   * Read the response line, giving up after the timeout so that a hanging broker does not block the build
+   */
+  private static byte[] readLine(SocketChannel channel) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    long deadline = System.currentTimeMillis() + TIMEOUT_IN_MS;
+    channel.configureBlocking(false);
+    try (Selector selector = Selector.open()) {
+      channel.register(selector, SelectionKey.OP_READ);
+      while (true) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          throw new SocketTimeoutException("Token broker did not respond within " + TIMEOUT_IN_MS + " ms");
+        }
+        selector.select(remaining);
+        selector.selectedKeys().clear();
+        int read = channel.read(buffer);
+        if (read < 0) {
+          return line.toByteArray();
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          byte b = buffer.get();
+          if (b == '\n') {
+            return line.toByteArray();
+          }
+          line.write(b);
+        }
+        buffer.clear();
+      }
+    }
+  }
+
+  private static Path getSocketPath() {
+    String socket = System.getProperty(SOCKET_PROPERTY);
+    if (socket != null && !socket.isEmpty()) {
+      return Paths.get(socket);
+    }
+    return getDefaultSocketPath();
+  }
+}
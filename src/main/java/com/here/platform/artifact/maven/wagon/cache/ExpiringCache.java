@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe in-memory cache with a maximum number of entries and a time to live per entry.
+ * When the cache is full the least recently used entry is evicted.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ExpiringCache<K, V> {
+
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final LongSupplier clock;
+  private final Map<K, Entry<V>> entries;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  public ExpiringCache(int maxEntries, Duration ttl) {
+    this(maxEntries, ttl, System::currentTimeMillis);
+  }
+
+  ExpiringCache(int maxEntries, Duration ttl, LongSupplier clock) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Maximum number of entries must be positive: " + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.ttlMillis = ttl.toMillis();
+    this.clock = clock;
+    this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        return size() > ExpiringCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Return the cached value
+   *
+   * @param key cache key
+   * @return cached value or {@code null} if the key is absent or its entry expired
+   */
+  public V get(K key) {
+    synchronized (entries) {
+      Entry<V> entry = entries.get(key);
+      if (entry != null && entry.expiresAt <= clock.getAsLong()) {
+        entries.remove(key);
+        entry = null;
+      }
+      if (entry == null) {
+        missCount.incrementAndGet();
+        return null;
+      }
+      hitCount.incrementAndGet();
+      return entry.value;
+    }
+  }
+
+  /**
+   * Store the value using the default time to live of this cache
+   *
+   * @param key cache key
+   * @param value value to cache
+   */
+  public void put(K key, V value) {
+    put(key, value, ttlMillis);
+  }
+
+  /**
+   * Store the value using the given time to live
+   *
+   * @param key cache key
+   * @param value value to cache
+   * @param ttlMillis time to live of the entry in milliseconds
+   */
+  public void put(K key, V value, long ttlMillis) {
+    if (ttlMillis <= 0) {
+      return;
+    }
+    synchronized (entries) {
+      entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+    }
+  }
+
+  public void invalidate(K key) {
+    synchronized (entries) {
+      entries.remove(key);
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+    hitCount.set(0);
+    missCount.set(0);
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
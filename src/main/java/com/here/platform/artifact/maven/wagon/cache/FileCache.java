@@ -0,0 +1,541 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache persisted in a JSON file so that it can be shared by several Maven processes.
+ * Every entry has its own expiry time. The file is replaced atomically on each update
+ * and updates are serialized with a lock on a sibling {@code .lock} file.
+ * Values are computed by one process at a time, holding a lock on a sibling {@code .compute.lock} file,
+ * while the others wait for the value instead of computing their own.
+ * The parsed content is kept in memory and parsed again only when the file was replaced.
+ * Failures to access the file are logged and treated as cache misses.
+ * Where supported the file is readable by its owner only.
+ * Values stored with {@link #putDeferred} are written in batches, so that storing many values doesn't rewrite
+ * the whole file every time. The file keeps at most the given number of entries, the entries expiring first
+ * are dropped.
+ *
+ * @param <V> value type, must be serializable with Jackson
+ */
+public class FileCache<V> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileCache.class);
+
+  private static final String CACHE_DIR_PROPERTY = "hereCacheDir";
+  private static final String DEFAULT_CACHE_DIR = ".here/cache";
+  private static final String EXPIRES_AT_FIELD = "expiresAt";
+  private static final String VALUE_FIELD = "value";
+
+  /**
+   * File locks are held on behalf of the whole JVM, so threads of one process are serialized separately.
+   */
+  private static final Map<Path, Object> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+  /**
+   * Serializes the computations of the threads of one process, like {@link #PROCESS_LOCKS} the updates
+   */
+  private static final Map<Path, ReentrantLock> COMPUTE_LOCKS = new ConcurrentHashMap<>();
+
+  /**
+   * Longest wait for the value computed by another process, after which the value is computed locally
+   */
+  private static final long COMPUTE_LOCK_TIMEOUT_MILLIS = 10000;
+  private static final long COMPUTE_LOCK_POLL_MILLIS = 20;
+
+  /**
+   * Number of deferred values written together
+   */
+  static final int MAX_PENDING_ENTRIES = 100;
+
+  private final Path file;
+  private final Path lockFile;
+  private final Path computeLockFile;
+  private final long computeLockTimeoutMillis;
+  private final int maxEntries;
+  private final Map<String, PendingEntry<V>> pendingEntries = new LinkedHashMap<>();
+  private final Class<V> valueType;
+  private final ObjectMapper objectMapper;
+  private final LongSupplier clock;
+
+  private volatile Snapshot snapshot;
+
+  public FileCache(Path file, Class<V> valueType, ObjectMapper objectMapper) {
+    this(file, valueType, objectMapper, 0);
+  }
+
+  /**
+   * @param file the cache file
+   * @param valueType value type
+   * @param objectMapper maps the values to JSON
+   * @param maxEntries maximum number of entries kept in the file, a non-positive value for no limit
+   */
+  public FileCache(Path file, Class<V> valueType, ObjectMapper objectMapper, int maxEntries) {
+    this(file, valueType, objectMapper, System::currentTimeMillis, maxEntries, COMPUTE_LOCK_TIMEOUT_MILLIS);
+  }
+
+  FileCache(Path file, Class<V> valueType, ObjectMapper objectMapper, LongSupplier clock) {
+    this(file, valueType, objectMapper, clock, 0, COMPUTE_LOCK_TIMEOUT_MILLIS);
+  }
+
+  FileCache(Path file, Class<V> valueType, ObjectMapper objectMapper, LongSupplier clock,
+            long computeLockTimeoutMillis) {
+    this(file, valueType, objectMapper, clock, 0, computeLockTimeoutMillis);
+  }
+
+  FileCache(Path file, Class<V> valueType, ObjectMapper objectMapper, LongSupplier clock, int maxEntries,
+            long computeLockTimeoutMillis) {
+    this.file = file.toAbsolutePath();
+    this.lockFile = this.file.resolveSibling(this.file.getFileName() + ".lock");
+    this.computeLockFile = this.file.resolveSibling(this.file.getFileName() + ".compute.lock");
+    this.computeLockTimeoutMillis = computeLockTimeoutMillis;
+    this.maxEntries = maxEntries;
+    this.valueType = valueType;
+    this.objectMapper = objectMapper;
+    this.clock = clock;
+  }
+
+  /**
+   * Return the cached value
+   *
+   * @param key cache key
+   * @return cached value or {@code null} if the key is absent, its entry expired or the file can't be read
+   */
+  public V get(String key) {
+    synchronized (pendingEntries) {
+      PendingEntry<V> pendingEntry = pendingEntries.get(key);
+      if (pendingEntry != null && pendingEntry.expiresAt > clock.getAsLong()) {
+        return pendingEntry.value;
+      }
+    }
+    try {
+      JsonNode entry = currentEntries().get(key);
+      if (entry == null || isExpired(entry)) {
+        return null;
+      }
+      return objectMapper.treeToValue(entry.get(VALUE_FIELD), valueType);
+    } catch (Exception e) {
+      LOG.debug("Can't read {} from cache file {}", key, file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Store the value and remove all expired entries from the file
+   *
+   * @param key cache key
+   * @param value value to cache
+   * @param ttlMillis time to live of the entry in milliseconds
+   */
+  public void put(String key, V value, long ttlMillis) {
+    if (ttlMillis <= 0) {
+      return;
+    }
+    update(entries -> putEntry(entries, key, value, ttlMillis));
+  }
+
+  /**
+   * Store the value with the next update of the file. The deferred values are written when
+   * {@link #MAX_PENDING_ENTRIES} are collected, on {@link #flush()} or with any other update.
+   *
+   * @param key cache key
+   * @param value value to cache
+   * @param ttlMillis time to live of the entry in milliseconds
+   */
+  public void putDeferred(String key, V value, long ttlMillis) {
+    if (ttlMillis <= 0) {
+      return;
+    }
+    boolean full;
+    synchronized (pendingEntries) {
+      pendingEntries.put(key, new PendingEntry<>(value, clock.getAsLong() + ttlMillis));
+      full = pendingEntries.size() >= MAX_PENDING_ENTRIES;
+    }
+    if (full) {
+      flush();
+    }
+  }
+
+  /**
+   * Write the deferred values
+   */
+  public void flush() {
+    synchronized (pendingEntries) {
+      if (pendingEntries.isEmpty()) {
+        return;
+      }
+    }
+    update(entries -> {
+    });
+  }
+
+  public void remove(String key) {
+    update(entries -> entries.remove(key));
+  }
+
+  /**
+   * Remove the value if it matches the condition, e.g. only if it is still the value known to be invalid
+   *
+   * @param key cache key
+   * @param condition whether to remove the cached value
+   */
+  public void remove(String key, Predicate<V> condition) {
+    update(entries -> {
+      V value = readValue(key, entries.get(key));
+      if (value != null && condition.test(value)) {
+        entries.remove(key);
+      }
+    });
+  }
+
+  /**
+   * Return the cached value or compute and store it. Only one process computes a value at a time, the others wait
+   * for it and return the stored value. The computation doesn't hold the lock of the file, so that a slow
+   * computation doesn't block the reads and updates of other entries. If the value isn't stored within
+   * a bounded wait, it is computed locally. If another process stored a value meanwhile, that value is returned
+   * instead of the computed one, so that the processes share one value. If the file can't be updated
+   * the computed value is returned without caching.
+   *
+   * @param key cache key
+   * @param supplier computes the value, exceptions are passed to the caller
+   * @param ttlMillis time to live of the computed value in milliseconds
+   * @return cached or computed value
+   */
+  public V computeIfAbsent(String key, Supplier<V> supplier, ToLongFunction<V> ttlMillis) {
+    V value = get(key);
+    if (value != null) {
+      return value;
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(computeLockTimeoutMillis);
+    ReentrantLock processLock = COMPUTE_LOCKS.computeIfAbsent(file, path -> new ReentrantLock());
+    if (!tryLock(processLock, deadline)) {
+      LOG.debug("Timed out waiting for {} to be computed by another thread", key);
+      return computeAndStore(key, supplier, ttlMillis);
+    }
+    FileChannel channel = null;
+    try {
+      channel = openComputeLockFile();
+      if (channel == null || tryLock(channel, deadline) == null) {
+        LOG.debug("Timed out waiting for {} to be computed by another process", key);
+        return computeAndStore(key, supplier, ttlMillis);
+      }
+      // the process holding the lock before may have stored the value
+      value = get(key);
+      return value != null ? value : computeAndStore(key, supplier, ttlMillis);
+    } finally {
+      // closing the channel releases the file lock
+      closeQuietly(channel);
+      processLock.unlock();
+    }
+  }
+
+  private V computeAndStore(String key, Supplier<V> supplier, ToLongFunction<V> ttlMillis) {
+    V computed = supplier.get();
+    long ttl = ttlMillis.applyAsLong(computed);
+    if (ttl <= 0) {
+      return computed;
+    }
+    AtomicReference<V> result = new AtomicReference<>(computed);
+    update(entries -> {
+      V current = readValue(key, entries.get(key));
+      if (current != null) {
+        result.set(current);
+      } else {
+        putEntry(entries, key, computed, ttl);
+      }
+    });
+    return result.get();
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Directory for the caches persisted by the plugin
+   *
+   * @return the directory set via {@code hereCacheDir} system property or {@code ~/.here/cache}
+   */
+  public static Path getCacheDir() {
+    String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+    if (cacheDir != null && !cacheDir.isEmpty()) {
+      return Paths.get(cacheDir);
+    }
+    return Paths.get(System.getProperty("user.home"), DEFAULT_CACHE_DIR);
+  }
+
+  private void update(EntriesUpdate entriesUpdate) {
+    Object processLock = PROCESS_LOCKS.computeIfAbsent(file, path -> new Object());
+    synchronized (processLock) {
+      try {
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+          // closing the channel releases the lock
+          channel.lock();
+          ObjectNode entries = readEntriesForUpdate();
+          removeExpired(entries);
+          putPendingEntries(entries);
+          entriesUpdate.apply(entries);
+          removeExcessEntries(entries);
+          write(entries);
+        }
+      } catch (Exception e) {
+        LOG.debug("Failed to update cache file {}", file, e);
+      }
+    }
+  }
+
+  private static boolean tryLock(ReentrantLock lock, long deadline) {
+    try {
+      return lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Wait for the lock of the file until the deadline
+   *
+   * @return the lock or {@code null} if it isn't acquired in time
+   */
+  private FileLock tryLock(FileChannel channel, long deadline) {
+    try {
+      while (true) {
+        try {
+          FileLock fileLock = channel.tryLock();
+          if (fileLock != null) {
+            return fileLock;
+          }
+        } catch (OverlappingFileLockException e) {
+          // the lock is held by a channel of this process
+        }
+        if (System.nanoTime() - deadline >= 0) {
+          return null;
+        }
+        Thread.sleep(COMPUTE_LOCK_POLL_MILLIS);
+      }
+    } catch (IOException e) {
+      LOG.debug("Can't lock {}", computeLockFile, e);
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private FileChannel openComputeLockFile() {
+    try {
+      Files.createDirectories(file.getParent());
+      return FileChannel.open(computeLockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      LOG.debug("Can't open {}", computeLockFile, e);
+      return null;
+    }
+  }
+
+  private void closeQuietly(FileChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        LOG.debug("Can't close {}", computeLockFile, e);
+      }
+    }
+  }
+
+  private void putEntry(ObjectNode entries, String key, V value, long ttlMillis) {
+    putEntryUntil(entries, key, value, clock.getAsLong() + ttlMillis);
+  }
+
+  private void putEntryUntil(ObjectNode entries, String key, V value, long expiresAt) {
+    ObjectNode entry = entries.putObject(key);
+    entry.put(EXPIRES_AT_FIELD, expiresAt);
+    entry.set(VALUE_FIELD, objectMapper.valueToTree(value));
+  }
+
+  private void putPendingEntries(ObjectNode entries) {
+    synchronized (pendingEntries) {
+      pendingEntries.forEach(
+          (key, pendingEntry) -> putEntryUntil(entries, key, pendingEntry.value, pendingEntry.expiresAt));
+      pendingEntries.clear();
+    }
+  }
+
+  /**
+   * Drop the entries expiring first, so that the file and the cost of rewriting it stay bounded
+   */
+  private void removeExcessEntries(ObjectNode entries) {
+    int excess = entries.size() - maxEntries;
+    if (maxEntries <= 0 || excess <= 0) {
+      return;
+    }
+    List<Map.Entry<String, JsonNode>> byExpiry = new ArrayList<>(entries.size());
+    entries.fields().forEachRemaining(byExpiry::add);
+    byExpiry.sort(Comparator.comparingLong(entry -> entry.getValue().path(EXPIRES_AT_FIELD).asLong(0)));
+    for (int i = 0; i < excess; i++) {
+      entries.remove(byExpiry.get(i).getKey());
+    }
+  }
+
+  private V readValue(String key, JsonNode entry) {
+    if (entry == null || isExpired(entry)) {
+      return null;
+    }
+    try {
+      return objectMapper.treeToValue(entry.get(VALUE_FIELD), valueType);
+    } catch (IOException e) {
+      LOG.debug("Can't read {} from cache file {}", key, file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Return the parsed entries, re-parsing the file only if it was modified or replaced since the last read
+   */
+  private ObjectNode currentEntries() throws IOException {
+    if (!Files.exists(file)) {
+      return objectMapper.createObjectNode();
+    }
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    Snapshot current = snapshot;
+    if (current != null && current.isSameFile(attributes)) {
+      return current.entries;
+    }
+    ObjectNode entries = readEntries();
+    snapshot = new Snapshot(attributes, entries);
+    return entries;
+  }
+
+  private ObjectNode readEntries() throws IOException {
+    if (!Files.exists(file)) {
+      return objectMapper.createObjectNode();
+    }
+    JsonNode node = objectMapper.readTree(file.toFile());
+    return node instanceof ObjectNode ? (ObjectNode) node : objectMapper.createObjectNode();
+  }
+
+  private ObjectNode readEntriesForUpdate() {
+    try {
+      return readEntries();
+    } catch (IOException e) {
+      LOG.debug("Replacing unreadable cache file {}", file, e);
+      return objectMapper.createObjectNode();
+    }
+  }
+
+  private void write(ObjectNode entries) throws IOException {
+    // temporary files are created with owner-only permissions on POSIX file systems
+    Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      objectMapper.writeValue(tempFile.toFile(), entries);
+      try {
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private void removeExpired(ObjectNode entries) {
+    Iterator<JsonNode> iterator = entries.elements();
+    while (iterator.hasNext()) {
+      if (isExpired(iterator.next())) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private boolean isExpired(JsonNode entry) {
+    return entry.path(EXPIRES_AT_FIELD).asLong(0) <= clock.getAsLong();
+  }
+
+  private static final class Snapshot {
+
+    private final FileTime lastModifiedTime;
+    private final long size;
+    private final Object fileKey;
+    private final ObjectNode entries;
+
+    private Snapshot(BasicFileAttributes attributes, ObjectNode entries) {
+      this.lastModifiedTime = attributes.lastModifiedTime();
+      this.size = attributes.size();
+      this.fileKey = attributes.fileKey();
+      this.entries = entries;
+    }
+
+    private boolean isSameFile(BasicFileAttributes attributes) {
+      return lastModifiedTime.equals(attributes.lastModifiedTime())
+          && size == attributes.size()
+          && Objects.equals(fileKey, attributes.fileKey());
+    }
+  }
+
+  private static final class PendingEntry<V> {
+
+    private final V value;
+    private final long expiresAt;
+
+    private PendingEntry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  @FunctionalInterface
+  private interface EntriesUpdate {
+
+    void apply(ObjectNode entries);
+  }
+}
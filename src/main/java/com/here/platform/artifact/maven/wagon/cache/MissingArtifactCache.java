@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+
+/**
+ * Negative cache of groups and artifacts which are not registered in a repository,
+ * e.g. Maven Central dependencies requested from the HERE repository.
+ * Entries are kept in memory and optionally in a file shared by all Maven processes of the user.
+ * The time to live should be short so that freshly published artifacts are not hidden for long.
+ */
+public class MissingArtifactCache {
+
+  private static final String TTL_PROPERTY = "hereRegisterNegativeCacheTtlSeconds";
+  private static final String MAX_ENTRIES_PROPERTY = "hereRegisterNegativeCacheMaxEntries";
+  private static final String DISK_ENABLED_PROPERTY = "hereRegisterNegativeDiskCache";
+  private static final long DEFAULT_TTL_SECONDS = 120;
+  private static final int DEFAULT_MAX_ENTRIES = 10000;
+  private static final String FILE_NAME = "artifact_wagon_register_missing_cache.json";
+
+  /**
+   * NOTE: The variable is static so that missing artifacts are shared by all wagon instances in the JVM.
+   */
+  private static final MissingArtifactCache SHARED = fromSystemProperties();
+
+  private final ExpiringCache<String, Boolean> memoryCache;
+  private final FileCache<Boolean> fileCache;
+  private final long ttlMillis;
+
+  /**
+   * @param memoryCache in-memory cache
+   * @param fileCache file cache or {@code null} to keep the entries in memory only
+   * @param ttl time to live of the entries, a non-positive value disables the cache
+   */
+  public MissingArtifactCache(ExpiringCache<String, Boolean> memoryCache, FileCache<Boolean> fileCache, Duration ttl) {
+    this.memoryCache = memoryCache;
+    this.fileCache = fileCache;
+    this.ttlMillis = ttl.toMillis();
+  }
+
+  public static MissingArtifactCache shared() {
+    return SHARED;
+  }
+
+  /**
+   * @param key cache key
+   * @return {@code true} if the artifact was recently found to be missing
+   */
+  public boolean isMissing(String key) {
+    if (ttlMillis <= 0) {
+      return false;
+    }
+    if (memoryCache.get(key) != null) {
+      return true;
+    }
+    if (fileCache != null && fileCache.get(key) != null) {
+      memoryCache.put(key, Boolean.TRUE, ttlMillis);
+      return true;
+    }
+    return false;
+  }
+
+  public void putMissing(String key) {
+    memoryCache.put(key, Boolean.TRUE, ttlMillis);
+    if (fileCache != null) {
+      fileCache.put(key, Boolean.TRUE, ttlMillis);
+    }
+  }
+
+  /**
+   * Forget a missing artifact, e.g. after it was registered
+   *
+   * @param key cache key
+   */
+  public void remove(String key) {
+    memoryCache.invalidate(key);
+    if (fileCache != null) {
+      fileCache.remove(key);
+    }
+  }
+
+  /**
+   * Clear the in-memory entries and counters. The file cache is left untouched.
+   */
+  public void clear() {
+    memoryCache.clear();
+  }
+
+  public long getHitCount() {
+    return memoryCache.getHitCount();
+  }
+
+  private static MissingArtifactCache fromSystemProperties() {
+    Duration ttl = Duration.ofSeconds(Long.getLong(TTL_PROPERTY, DEFAULT_TTL_SECONDS));
+    FileCache<Boolean> fileCache = null;
+    if (Boolean.getBoolean(DISK_ENABLED_PROPERTY)) {
+      fileCache = new FileCache<>(FileCache.getCacheDir().resolve(FILE_NAME), Boolean.class, new ObjectMapper());
+    }
+    return new MissingArtifactCache(
+        new ExpiringCache<>(Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES), ttl), fileCache, ttl);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.model.RegisterResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of register responses (HRN prefixes) keyed by repository, group and artifact.
+ * Lookups are served from memory first and then from an optional file shared by all Maven processes of the user.
+ * New responses are written to the file in batches and on {@link #flush()}, the file keeps as many entries as memory.
+ * Additionally the last known group HRN prefix is kept per repository and group.
+ */
+public class RegisterResponseCache {
+
+  private static final String MEMORY_TTL_PROPERTY = "hereRegisterCacheTtlSeconds";
+  private static final String MEMORY_MAX_ENTRIES_PROPERTY = "hereRegisterCacheMaxEntries";
+  private static final String DISK_TTL_PROPERTY = "hereRegisterDiskCacheTtlSeconds";
+  private static final long DEFAULT_MEMORY_TTL_SECONDS = 3600;
+  private static final int DEFAULT_MEMORY_MAX_ENTRIES = 10000;
+  private static final long DEFAULT_DISK_TTL_SECONDS = 86400;
+  private static final String FILE_NAME = "artifact_wagon_register_cache.json";
+
+  /**
+   * NOTE: The variable is static so that each group and artifact is looked up only once and is reused
+   * by all wagon instances in the JVM.
+   */
+  private static final RegisterResponseCache SHARED = fromSystemProperties();
+
+  private final ExpiringCache<String, RegisterResponse> memoryCache;
+  private final ExpiringCache<String, String> groupHrnPrefixCache;
+  private final FileCache<RegisterResponse> fileCache;
+  private final long fileTtlMillis;
+
+  private final AtomicLong diskHitCount = new AtomicLong();
+
+  /**
+   * @param memoryCache in-memory cache
+   * @param groupHrnPrefixCache in-memory cache of group HRN prefixes
+   * @param fileCache file cache or {@code null} to keep the responses in memory only
+   * @param fileTtl time to live of the entries in the file cache
+   */
+  public RegisterResponseCache(
+      ExpiringCache<String, RegisterResponse> memoryCache,
+      ExpiringCache<String, String> groupHrnPrefixCache,
+      FileCache<RegisterResponse> fileCache,
+      Duration fileTtl) {
+    this.memoryCache = memoryCache;
+    this.groupHrnPrefixCache = groupHrnPrefixCache;
+    this.fileCache = fileCache;
+    this.fileTtlMillis = fileTtl.toMillis();
+  }
+
+  public static RegisterResponseCache shared() {
+    return SHARED;
+  }
+
+  /**
+   * Return the cached register response
+   *
+   * @param key cache key
+   * @return cached response or {@code null} on a cache miss
+   */
+  public RegisterResponse get(String key) {
+    RegisterResponse registerResponse = memoryCache.get(key);
+    if (registerResponse == null && fileCache != null) {
+      registerResponse = fileCache.get(key);
+      if (registerResponse != null) {
+        diskHitCount.incrementAndGet();
+        memoryCache.put(key, registerResponse);
+      }
+    }
+    return registerResponse;
+  }
+
+  public void put(String key, RegisterResponse registerResponse) {
+    memoryCache.put(key, registerResponse);
+    if (fileCache != null) {
+      fileCache.putDeferred(key, registerResponse, fileTtlMillis);
+    }
+  }
+
+  /**
+   * Write the responses not yet written to the file cache
+   */
+  public void flush() {
+    if (fileCache != null) {
+      fileCache.flush();
+    }
+  }
+
+  /**
+   * Return the last known HRN prefix of a group
+   *
+   * @param groupKey cache key of the group
+   * @return group HRN prefix or {@code null} if none of the group's artifacts was looked up yet
+   */
+  public String getGroupHrnPrefix(String groupKey) {
+    return groupHrnPrefixCache.get(groupKey);
+  }
+
+  public void putGroupHrnPrefix(String groupKey, String groupHrnPrefix) {
+    if (groupHrnPrefix != null) {
+      groupHrnPrefixCache.put(groupKey, groupHrnPrefix);
+    }
+  }
+
+  /**
+   * Clear the in-memory entries and counters. The file cache is left untouched.
+   */
+  public void clear() {
+    memoryCache.clear();
+    groupHrnPrefixCache.clear();
+    diskHitCount.set(0);
+  }
+
+  /**
+   * @return number of lookups served from memory
+   */
+  public long getHitCount() {
+    return memoryCache.getHitCount();
+  }
+
+  /**
+   * @return number of lookups not found in memory but served from the file cache
+   */
+  public long getDiskHitCount() {
+    return diskHitCount.get();
+  }
+
+  /**
+   * @return number of lookups found neither in memory nor in the file cache
+   */
+  public long getMissCount() {
+    return memoryCache.getMissCount() - diskHitCount.get();
+  }
+
+  private static RegisterResponseCache fromSystemProperties() {
+    int maxEntries = Integer.getInteger(MEMORY_MAX_ENTRIES_PROPERTY, DEFAULT_MEMORY_MAX_ENTRIES);
+    Duration ttl = Duration.ofSeconds(Long.getLong(MEMORY_TTL_PROPERTY, DEFAULT_MEMORY_TTL_SECONDS));
+    Duration fileTtl = Duration.ofSeconds(Long.getLong(DISK_TTL_PROPERTY, DEFAULT_DISK_TTL_SECONDS));
+    FileCache<RegisterResponse> fileCache = null;
+    if (!fileTtl.isZero() && !fileTtl.isNegative()) {
+      ObjectMapper objectMapper = new ObjectMapper();
+      objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+      fileCache = new FileCache<>(
+          FileCache.getCacheDir().resolve(FILE_NAME), RegisterResponse.class, objectMapper, maxEntries);
+    }
+    return new RegisterResponseCache(
+        new ExpiringCache<>(maxEntries, ttl), new ExpiringCache<>(maxEntries, ttl), fileCache, fileTtl);
+  }
+}
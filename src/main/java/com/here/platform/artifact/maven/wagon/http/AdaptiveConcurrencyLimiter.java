@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the concurrent requests per host with an AIMD (additive increase, multiplicative decrease) algorithm.
+ * The limit grows by one per round trip while the latency is flat and the limit is used, and shrinks when the
+ * host responds with {@code 429} or {@code 503}, a request fails, or the recent latency exceeds
+ * {@link #LATENCY_TOLERANCE} times the long-term latency. The limit shrinks at most once per round trip.
+ * Requests over the limit wait in FIFO order.
+ * A permit is held until the response headers arrive, so the limit applies to the requests waiting for a response
+ * rather than to the transfers of the response bodies, which are streamed after the permit is released.
+ * The limiter is enabled unless the {@code hereAdaptiveConcurrency} system property is {@code false},
+ * the limit is capped by the {@code hereMaxConcurrency} system property.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final String ENABLED_PROPERTY = "hereAdaptiveConcurrency";
+  private static final String MAX_LIMIT_PROPERTY = "hereMaxConcurrency";
+  private static final int DEFAULT_MAX_LIMIT = 64;
+
+  static final int INITIAL_LIMIT = 20;
+  static final int MIN_LIMIT = 1;
+
+  /**
+   * Factor applied to the limit after a {@code 429}, {@code 503} or failure
+   */
+  static final double DROP_BACKOFF_RATIO = 0.5;
+
+  /**
+   * Factor applied to the limit after a latency spike
+   */
+  static final double LATENCY_BACKOFF_RATIO = 0.9;
+
+  /**
+   * Ratio of recent to long-term latency considered as spike
+   */
+  static final double LATENCY_TOLERANCE = 2.0;
+
+  /**
+   * Minimum increase of the latency considered as spike, smaller variations are noise
+   */
+  private static final long MIN_LATENCY_SPIKE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static final double SHORT_LATENCY_WEIGHT = 0.3;
+  private static final double LONG_LATENCY_WEIGHT = 0.02;
+
+  /**
+   * NOTE: The variable is static so that the limit of a host is shared by all wagon instances in the JVM.
+   */
+  private static final AdaptiveConcurrencyLimiter SHARED = new AdaptiveConcurrencyLimiter(
+      Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true")),
+      Integer.getInteger(MAX_LIMIT_PROPERTY, DEFAULT_MAX_LIMIT));
+
+  /**
+   * Outcome of a request
+   */
+  public enum Outcome {
+    /**
+     * The host handled the request, its latency is a valid sample
+     */
+    SUCCESS,
+    /**
+     * The host handled the request but its latency says nothing about the load, e.g. for uploads
+     */
+    IGNORED,
+    /**
+     * The host is overloaded
+     */
+    DROPPED
+  }
+
+  private static final Permit NO_PERMIT = outcome -> {
+  };
+
+  private final boolean enabled;
+  private final int maxLimit;
+  private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+  /**
+   * @param enabled whether requests are limited
+   * @param maxLimit maximum concurrent requests per host
+   */
+  AdaptiveConcurrencyLimiter(boolean enabled, int maxLimit) {
+    this.enabled = enabled;
+    this.maxLimit = Math.max(MIN_LIMIT, maxLimit);
+  }
+
+  public static AdaptiveConcurrencyLimiter shared() {
+    return SHARED;
+  }
+
+  /**
+   * Wait until a request to the host is allowed
+   *
+   * @param host host name
+   * @return the permit to release once the response arrived
+   * @throws InterruptedIOException if the thread is interrupted while waiting
+   * @throws TransferDeadline.DeadlineExceededException if no request is allowed before the transfer deadline
+   */
+  public Permit acquire(String host) throws IOException {
+    if (!enabled) {
+      return NO_PERMIT;
+    }
+    Limit limit = limits.computeIfAbsent(host == null ? "" : host.toLowerCase(Locale.ROOT), k -> new Limit());
+    return limit.acquire();
+  }
+
+  /**
+   * @param host host name
+   * @return the current limit of the host
+   */
+  public int getLimit(String host) {
+    Limit limit = limits.get(host == null ? "" : host.toLowerCase(Locale.ROOT));
+    return limit == null ? Math.min(INITIAL_LIMIT, maxLimit) : limit.getLimit();
+  }
+
+  /**
+   * Permit of a single request
+   */
+  public interface Permit {
+
+    /**
+     * Release the permit and adjust the limit
+     *
+     * @param outcome outcome of the request
+     */
+    void release(Outcome outcome);
+  }
+
+  private final class Limit {
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition available = lock.newCondition();
+
+    private double limit = Math.min(INITIAL_LIMIT, maxLimit);
+    private int inFlight;
+    private double shortLatency;
+    private double longLatency;
+    private long lastDecrease = System.nanoTime();
+
+    Permit acquire() throws IOException {
+      long remaining = TransferDeadline.remainingMillis();
+      long remainingNanos = remaining == Long.MAX_VALUE ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(remaining);
+      lock.lock();
+      try {
+        while (inFlight >= (int) limit) {
+          if (remainingNanos == Long.MAX_VALUE) {
+            available.await();
+          } else if (remainingNanos <= 0) {
+            throw new TransferDeadline.DeadlineExceededException();
+          } else {
+            remainingNanos = available.awaitNanos(remainingNanos);
+          }
+        }
+        int inFlightAtStart = ++inFlight;
+        long start = System.nanoTime();
+        return new Permit() {
+          private boolean released;
+
+          @Override
+          public void release(Outcome outcome) {
+            if (!released) {
+              released = true;
+              Limit.this.release(outcome, start, System.nanoTime() - start, inFlightAtStart);
+            }
+          }
+        };
+      } catch (InterruptedException exp) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for a request slot");
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void release(Outcome outcome, long start, long latencyNanos, int inFlightAtStart) {
+      lock.lock();
+      try {
+        inFlight--;
+        if (outcome == Outcome.DROPPED) {
+          decrease(start, DROP_BACKOFF_RATIO);
+        } else if (outcome == Outcome.SUCCESS) {
+          if (longLatency == 0) {
+            shortLatency = latencyNanos;
+            longLatency = latencyNanos;
+          }
+          shortLatency += (latencyNanos - shortLatency) * SHORT_LATENCY_WEIGHT;
+          longLatency += (latencyNanos - longLatency) * LONG_LATENCY_WEIGHT;
+          if (shortLatency > longLatency * LATENCY_TOLERANCE && shortLatency - longLatency > MIN_LATENCY_SPIKE_NANOS) {
+            decrease(start, LATENCY_BACKOFF_RATIO);
+          } else if (inFlightAtStart * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+          }
+        }
+        available.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int getLimit() {
+      lock.lock();
+      try {
+        return (int) limit;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void decrease(long start, double ratio) {
+      // requests sent before the last decrease report the load that caused it
+      if (start - lastDecrease >= 0) {
+        limit = Math.max(MIN_LIMIT, limit * ratio);
+        lastDecrease = System.nanoTime();
+      }
+    }
+  }
+}
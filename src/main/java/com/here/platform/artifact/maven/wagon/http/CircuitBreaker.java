@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker per host. After {@code hereCircuitBreakerFailures} consecutive failures, i.e. server errors
+ * or I/O errors, requests to the host fail immediately for {@code hereCircuitBreakerOpenSeconds}.
+ * Afterwards a single probe request is let through, it closes the circuit on success and opens it again on failure.
+ */
+public class CircuitBreaker {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+  private static final String FAILURE_THRESHOLD_PROPERTY = "hereCircuitBreakerFailures";
+  private static final String OPEN_SECONDS_PROPERTY = "hereCircuitBreakerOpenSeconds";
+  private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  private static final long DEFAULT_OPEN_SECONDS = 10;
+
+  /**
+   * NOTE: The variable is static so that all wagon instances in the JVM stop calling a broken host.
+   */
+  private static final CircuitBreaker SHARED = new CircuitBreaker(
+      Integer.getInteger(FAILURE_THRESHOLD_PROPERTY, DEFAULT_FAILURE_THRESHOLD),
+      TimeUnit.SECONDS.toMillis(Long.getLong(OPEN_SECONDS_PROPERTY, DEFAULT_OPEN_SECONDS)));
+
+  private final int failureThreshold;
+  private final long openMillis;
+  private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+  /**
+   * @param failureThreshold consecutive failures opening the circuit, a non-positive value disables the breaker
+   * @param openMillis time until a probe request is let through
+   */
+  CircuitBreaker(int failureThreshold, long openMillis) {
+    this.failureThreshold = failureThreshold;
+    this.openMillis = openMillis;
+  }
+
+  public static CircuitBreaker shared() {
+    return SHARED;
+  }
+
+  /**
+   * Check whether a request to the host may be sent
+   *
+   * @param host host name
+   * @throws CircuitBreakerOpenException if the circuit of the host is open
+   */
+  public void acquire(String host) throws CircuitBreakerOpenException {
+    if (failureThreshold > 0 && !circuit(host).tryAcquire()) {
+      throw new CircuitBreakerOpenException(host);
+    }
+  }
+
+  /**
+   * Record a request handled by the host
+   *
+   * @param host host name
+   */
+  public void onSuccess(String host) {
+    if (failureThreshold > 0) {
+      circuit(host).onSuccess();
+    }
+  }
+
+  /**
+   * Record a request failed by the host
+   *
+   * @param host host name
+   */
+  public void onFailure(String host) {
+    if (failureThreshold > 0 && circuit(host).onFailure()) {
+      LOG.warn("Requests to {} failed {} times in a row, failing further requests for {} seconds",
+          host, failureThreshold, TimeUnit.MILLISECONDS.toSeconds(openMillis));
+    }
+  }
+
+  /**
+   * Record a request which tells nothing about the health of the host, e.g. a throttled one
+   *
+   * @param host host name
+   */
+  public void onIgnored(String host) {
+    if (failureThreshold > 0) {
+      circuit(host).onIgnored();
+    }
+  }
+
+  /**
+   * @param host host name
+   * @return whether requests to the host fail immediately
+   */
+  public boolean isOpen(String host) {
+    Circuit circuit = circuits.get(key(host));
+    return circuit != null && circuit.isOpen();
+  }
+
+  private Circuit circuit(String host) {
+    return circuits.computeIfAbsent(key(host), k -> new Circuit());
+  }
+
+  private static String key(String host) {
+    return host == null ? "" : host.toLowerCase(Locale.ROOT);
+  }
+
+  private final class Circuit {
+
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean probing;
+
+    synchronized boolean tryAcquire() {
+      if (consecutiveFailures < failureThreshold) {
+        return true;
+      }
+      // half-open, let a single probe through
+      if (probing || System.currentTimeMillis() < openUntil) {
+        return false;
+      }
+      probing = true;
+      return true;
+    }
+
+    synchronized void onSuccess() {
+      consecutiveFailures = 0;
+      probing = false;
+    }
+
+    synchronized void onIgnored() {
+      // let the next request probe the host
+      probing = false;
+    }
+
+    /**
+     * @return whether the circuit was opened
+     */
+    synchronized boolean onFailure() {
+      consecutiveFailures++;
+      if (consecutiveFailures >= failureThreshold && (probing || consecutiveFailures == failureThreshold)) {
+        probing = false;
+        openUntil = System.currentTimeMillis() + openMillis;
+        return true;
+      }
+      return false;
+    }
+
+    synchronized boolean isOpen() {
+      return consecutiveFailures >= failureThreshold && System.currentTimeMillis() < openUntil;
+    }
+  }
+
+  /**
+   * Thrown instead of sending a request to a host with an open circuit
+   */
+  public static class CircuitBreakerOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(String host) {
+      super("Requests to " + host + " are failing, not sending further requests for a while");
+    }
+  }
+}
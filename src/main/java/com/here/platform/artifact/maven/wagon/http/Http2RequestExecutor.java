@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.RequestExecutor;
+import com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.proxy.ProxyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static com.here.platform.artifact.maven.wagon.util.StringUtils.sha256;
+
+/**
+ * Executes requests with the {@link HttpClient} of the JDK, which negotiates HTTP/2 and multiplexes
+ * concurrent requests to a host over a single connection. Requests and responses are adapted from and to
+ * Apache HttpClient types, so the wagon handles them like the ones of its default transport.
+ * Requests are sent through the {@link RetryLoop} like in the default transport.
+ */
+public class Http2RequestExecutor implements RequestExecutor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(Http2RequestExecutor.class);
+
+  private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+  private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Headers set by the JDK client itself. {@code Accept-Encoding} is dropped because the JDK client
+   * does not decompress responses.
+   */
+  private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+  static {
+    RESTRICTED_HEADERS.addAll(Arrays.asList(
+        HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH, HttpHeaders.HOST, HttpHeaders.EXPECT,
+        HttpHeaders.UPGRADE, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.TRANSFER_ENCODING, "Keep-Alive"));
+  }
+
+  /**
+   * NOTE: The variable is static so that all wagon instances in the JVM share the connections per proxy.
+   */
+  private static final Map<String, HttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+  private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "artifact-wagon-http2");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final HttpClient httpClient;
+  private final Duration readTimeout;
+  private final RetryLoop retryLoop;
+
+  /**
+   * @param httpClient JDK client
+   * @param readTimeout maximum time to wait for the response headers, zero for no timeout
+   * @param retryStrategy strategy to retry responses, e.g. {@code 429} or {@code 503}
+   */
+  public Http2RequestExecutor(HttpClient httpClient, Duration readTimeout, XRateLimitServiceUnavailableRetryStrategy retryStrategy) {
+    this(httpClient, readTimeout, new RetryLoop(retryStrategy));
+  }
+
+  Http2RequestExecutor(HttpClient httpClient, Duration readTimeout, RetryLoop retryLoop) {
+    this.httpClient = httpClient;
+    this.readTimeout = readTimeout;
+    this.retryLoop = retryLoop;
+  }
+
+  /**
+   * Return the shared JDK client for the proxy
+   *
+   * @param proxyInfo proxy or {@code null}
+   * @param connectTimeout connection timeout, zero for no timeout
+   * @return the shared client
+   */
+  public static HttpClient getHttpClient(ProxyInfo proxyInfo, Duration connectTimeout) {
+    // the password is part of the key only as a digest
+    String key = proxyInfo == null ? "" : String.format("%s:%d|%s|%s|%s",
+        proxyInfo.getHost(), proxyInfo.getPort(), proxyInfo.getUserName(), sha256(proxyInfo.getPassword()),
+        proxyInfo.getNonProxyHosts());
+    return CLIENTS.computeIfAbsent(key, k -> createHttpClient(proxyInfo, connectTimeout));
+  }
+
+  @Override
+  public CloseableHttpResponse apply(HttpUriRequest request) throws HttpException, IOException {
+    HttpHost host = URIUtils.extractHost(request.getURI());
+    HttpContext context = new BasicHttpContext();
+    context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, host);
+    return retryLoop.execute(host.getHostName(), request, context, () -> send(request));
+  }
+
+  private CloseableHttpResponse send(HttpUriRequest request) throws IOException {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(request.getURI());
+    if (isTimeout(readTimeout)) {
+      builder.timeout(readTimeout);
+    }
+    for (Header header : request.getAllHeaders()) {
+      if (!RESTRICTED_HEADERS.contains(header.getName())) {
+        builder.header(header.getName(), header.getValue());
+      }
+    }
+    HttpEntity entity = getEntity(request);
+    // closed when the exchange ends, so that a writer of an aborted body doesn't wait for a reader forever
+    try (PipedBody body = entity == null ? null : new PipedBody(entity)) {
+      builder.method(request.getMethod(), bodyPublisher(body));
+      HttpResponse<InputStream> response;
+      try {
+        response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+      } catch (InterruptedException exp) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for " + request.getURI());
+      }
+      return toApacheResponse(response);
+    }
+  }
+
+  private static HttpEntity getEntity(HttpUriRequest request) {
+    if (!(request instanceof HttpEntityEnclosingRequest)) {
+      return null;
+    }
+    HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+    return entity == null || entity.getContentLength() == 0 ? null : entity;
+  }
+
+  private static HttpRequest.BodyPublisher bodyPublisher(PipedBody body) {
+    if (body == null) {
+      return HttpRequest.BodyPublishers.noBody();
+    }
+    HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(body);
+    long contentLength = body.entity.getContentLength();
+    return contentLength > 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength) : publisher;
+  }
+
+  /**
+   * Streams the entity, which may only support {@link HttpEntity#writeTo}, through a pipe. The JDK client
+   * asks for the body again on redirects, every time the previous pipe is closed, which ends its writer.
+   */
+  static final class PipedBody implements Supplier<InputStream>, Closeable {
+
+    private final HttpEntity entity;
+    private PipedInputStream pipe;
+    private boolean closed;
+
+    PipedBody(HttpEntity entity) {
+      this.entity = entity;
+    }
+
+    @Override
+    public synchronized InputStream get() {
+      if (closed) {
+        throw new IllegalStateException("The request body is closed");
+      }
+      if (pipe != null) {
+        if (!entity.isRepeatable()) {
+          throw new IllegalStateException("The request body can't be sent again");
+        }
+        closeQuietly(pipe);
+      }
+      PipedInputStream in = new PipedInputStream(PIPE_BUFFER_SIZE);
+      try {
+        PipedOutputStream out = new PipedOutputStream(in);
+        EXECUTOR.execute(() -> {
+          try (PipedOutputStream pipeOut = out) {
+            entity.writeTo(pipeOut);
+          } catch (IOException exp) {
+            LOG.debug("Unable to write the request body", exp);
+          }
+        });
+      } catch (IOException exp) {
+        throw new IllegalStateException("Unable to stream the request body", exp);
+      }
+      pipe = in;
+      return in;
+    }
+
+    @Override
+    public synchronized void close() {
+      closed = true;
+      if (pipe != null) {
+        // the writer fails on its next write instead of blocking on the full pipe
+        closeQuietly(pipe);
+      }
+    }
+
+    private static void closeQuietly(InputStream in) {
+      try {
+        in.close();
+      } catch (IOException exp) {
+        LOG.debug("Unable to close the request body", exp);
+      }
+    }
+  }
+
+  private static CloseableHttpResponse toApacheResponse(HttpResponse<InputStream> response) {
+    int status = response.statusCode();
+    ProtocolVersion version = response.version() == HttpClient.Version.HTTP_2 ? HTTP_2 : new ProtocolVersion("HTTP", 1, 1);
+    Http2Response apacheResponse = new Http2Response(
+        new BasicStatusLine(version, status, EnglishReasonPhraseCatalog.INSTANCE.getReason(status, Locale.ENGLISH)),
+        response.body());
+    for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+      if (header.getKey().startsWith(":")) {
+        continue;
+      }
+      for (String value : header.getValue()) {
+        apacheResponse.addHeader(header.getKey(), value);
+      }
+    }
+    long contentLength = response.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(-1);
+    InputStreamEntity entity = new InputStreamEntity(response.body(), contentLength);
+    response.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(entity::setContentType);
+    apacheResponse.setEntity(entity);
+    return apacheResponse;
+  }
+
+  private static HttpClient createHttpClient(ProxyInfo proxyInfo, Duration connectTimeout) {
+    HttpClient.Builder builder = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .executor(EXECUTOR);
+    if (isTimeout(connectTimeout)) {
+      builder.connectTimeout(connectTimeout);
+    }
+    if (proxyInfo != null) {
+      builder.proxy(proxySelector(proxyInfo));
+      if (proxyInfo.getUserName() != null) {
+        PasswordAuthentication credentials = new PasswordAuthentication(
+            proxyInfo.getUserName(), proxyInfo.getPassword() == null ? new char[0] : proxyInfo.getPassword().toCharArray());
+        builder.authenticator(new Authenticator() {
+          @Override
+          protected PasswordAuthentication getPasswordAuthentication() {
+            return getRequestorType() == RequestorType.PROXY ? credentials : null;
+          }
+        });
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Whether the duration limits the wait, the JDK client rejects zero and negative timeouts
+   * while the wagon uses {@code 0} for no timeout
+   */
+  static boolean isTimeout(Duration duration) {
+    return duration != null && !duration.isZero() && !duration.isNegative();
+  }
+
+  /**
+   * Proxy selector which connects directly to the non-proxy hosts of the proxy, like the Apache transport
+   */
+  static ProxySelector proxySelector(ProxyInfo proxyInfo) {
+    List<Proxy> proxy = Collections.singletonList(
+        new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxyInfo.getHost(), proxyInfo.getPort())));
+    List<Proxy> direct = Collections.singletonList(Proxy.NO_PROXY);
+    return new ProxySelector() {
+      @Override
+      public List<Proxy> select(URI uri) {
+        return ProxyUtils.validateNonProxyHosts(proxyInfo, uri.getHost()) ? direct : proxy;
+      }
+
+      @Override
+      public void connectFailed(URI uri, SocketAddress address, IOException exp) {
+        LOG.debug("Unable to connect to {} via {}", uri, address, exp);
+      }
+    };
+  }
+
+  private static final class Http2Response extends BasicHttpResponse implements CloseableHttpResponse {
+
+    private final InputStream body;
+
+    private Http2Response(BasicStatusLine statusLine, InputStream body) {
+      super(statusLine);
+      this.body = body;
+    }
+
+    @Override
+    public void close() throws IOException {
+      body.close();
+    }
+  }
+}
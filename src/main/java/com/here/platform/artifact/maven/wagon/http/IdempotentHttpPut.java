@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.apache.http.client.methods.HttpPut;
+
+/**
+ * PUT request which may be sent again after an I/O error, since repeating it has the same effect as sending it once,
+ * e.g. the registration of an artifact. Other PUT requests, i.e. uploads, are not retried on I/O errors
+ * by the {@link RetryLoop}.
+ */
+public class IdempotentHttpPut extends HttpPut {
+
+  public IdempotentHttpPut(String uri) {
+    super(uri);
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pauses all requests to a host once the host signalled a rate limit, so that the threads of the build
+ * wait for the reset together instead of collecting their own {@code 429} responses.
+ * Waiting threads resume with a random jitter so that they don't hit the host at the same instant.
+ *
+ * <p>Once the remaining quota of a host drops below {@link #THROTTLE_RATIO} of its limit, requests to the host
+ * are paced by a token bucket which spreads the remaining requests evenly until the quota resets.
+ */
+public class RateLimitGate {
+
+  /**
+   * Maximum jitter as a fraction of the wait
+   */
+  static final double JITTER_RATIO = 0.2;
+
+  /**
+   * Fraction of the quota below which requests are paced
+   */
+  static final double THROTTLE_RATIO = 0.2;
+
+  /**
+   * Assumed time until the quota resets if the host doesn't tell
+   */
+  private static final long DEFAULT_QUOTA_WINDOW_MS = 1000;
+
+  /**
+   * NOTE: The variable is static so that all wagon instances in the JVM respect the rate limit of a host.
+   */
+  private static final RateLimitGate SHARED = new RateLimitGate();
+
+  private final ConcurrentMap<String, Long> pausedUntil = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+  public static RateLimitGate shared() {
+    return SHARED;
+  }
+
+  /**
+   * Pause all requests to the host
+   *
+   * @param host host name
+   * @param delayMillis time until the rate limit resets
+   */
+  public void pause(String host, long delayMillis) {
+    long until = System.currentTimeMillis() + delayMillis;
+    pausedUntil.merge(key(host), until, Math::max);
+  }
+
+  /**
+   * Update the quota of the host from the rate limit headers of a response
+   *
+   * @param host host name
+   * @param limit requests allowed per quota window
+   * @param remaining requests left in the current window
+   * @param resetMillis time until the quota resets or {@code -1} if unknown
+   */
+  public void updateQuota(String host, long limit, long remaining, long resetMillis) {
+    if (remaining > limit * THROTTLE_RATIO) {
+      buckets.remove(key(host));
+      return;
+    }
+    if (remaining == 0 && resetMillis >= 0) {
+      pause(host, resetMillis);
+    }
+    long window = resetMillis > 0 ? resetMillis : DEFAULT_QUOTA_WINDOW_MS;
+    double ratePerMilli = Math.max(remaining, 1) / (double) window;
+    buckets.computeIfAbsent(key(host), k -> new TokenBucket()).setRate(ratePerMilli);
+  }
+
+  /**
+   * @param host host name
+   * @return whether requests to the host are paced
+   */
+  public boolean isThrottled(String host) {
+    return buckets.containsKey(key(host));
+  }
+
+  /**
+   * @param host host name
+   * @return the time until requests to the host are resumed, {@code 0} if the host is not paused
+   */
+  public long getDelay(String host) {
+    Long until = pausedUntil.get(key(host));
+    return until == null ? 0 : Math.max(0, until - System.currentTimeMillis());
+  }
+
+  /**
+   * Wait until requests to the host are resumed and, if the host is throttled, for the next request slot
+   *
+   * @param host host name
+   * @throws InterruptedIOException if the thread is interrupted while waiting
+   * @throws TransferDeadline.DeadlineExceededException if the wait would end after the transfer deadline
+   */
+  public void await(String host) throws IOException {
+    long delay;
+    while ((delay = getDelay(host)) > 0) {
+      TransferDeadline.check(delay);
+      sleep(withJitter(delay));
+    }
+    // forget the reset time unless another thread paused the host again meanwhile
+    pausedUntil.computeIfPresent(key(host), (k, until) -> until <= System.currentTimeMillis() ? null : until);
+
+    TokenBucket bucket = buckets.get(key(host));
+    if (bucket != null) {
+      long wait = bucket.reserve();
+      try {
+        TransferDeadline.check(wait);
+      } catch (TransferDeadline.DeadlineExceededException exp) {
+        // the slot is not used, leave it to the other requests
+        bucket.cancel();
+        throw exp;
+      }
+      sleep(wait);
+    }
+  }
+
+  /**
+   * Sleep for the given time plus a random jitter
+   *
+   * @param millis minimum time to sleep
+   * @throws InterruptedIOException if the thread is interrupted while sleeping
+   */
+  public static void sleepWithJitter(long millis) throws InterruptedIOException {
+    sleep(withJitter(millis));
+  }
+
+  static long withJitter(long millis) {
+    if (millis <= 0) {
+      return 0;
+    }
+    return millis + ThreadLocalRandom.current().nextLong((long) (millis * JITTER_RATIO) + 1);
+  }
+
+  private static void sleep(long millis) throws InterruptedIOException {
+    if (millis <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException exp) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the rate limit to reset");
+    }
+  }
+
+  private static String key(String host) {
+    return host == null ? "" : host.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Token bucket holding at most one token, so that requests are spread evenly instead of sent in bursts
+   */
+  private static final class TokenBucket {
+
+    private double tokens = 1;
+    private double ratePerMilli;
+    private long lastRefill = System.currentTimeMillis();
+
+    synchronized void setRate(double ratePerMilli) {
+      refill();
+      this.ratePerMilli = ratePerMilli;
+    }
+
+    /**
+     * Take a token, possibly one that is not yet refilled
+     *
+     * @return the time until the token is available
+     */
+    synchronized long reserve() {
+      refill();
+      tokens -= 1;
+      return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / ratePerMilli);
+    }
+
+    /**
+     * Return a token taken by {@link #reserve()}
+     */
+    synchronized void cancel() {
+      tokens += 1;
+    }
+
+    private void refill() {
+      long now = System.currentTimeMillis();
+      tokens = Math.min(1, tokens + (now - lastRefill) * ratePerMilli);
+      lastRefill = now;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.apache.http.HttpException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpExecutionAware;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.execchain.ClientExecChain;
+import org.apache.http.impl.execchain.RetryExec;
+import org.apache.http.impl.execchain.ServiceUnavailableRetryExec;
+import org.codehaus.plexus.util.ReflectionUtils;
+
+import java.io.IOException;
+
+/**
+ * Replacement of {@link org.apache.http.impl.execchain.ServiceUnavailableRetryExec} which sends the requests
+ * through the {@link RetryLoop}, i.e. waits at the {@link RateLimitGate} before every attempt, respects the
+ * {@link CircuitBreaker} and the {@link RetryBudget}, and retries with the interval of the response plus jitter.
+ * The retry executors of the client are taken out of its chain, so that every attempt is sent by the loop.
+ */
+public class RateLimitRetryExec implements ClientExecChain {
+
+  private final ClientExecChain requestExecutor;
+  private final RetryLoop retryLoop;
+
+  public RateLimitRetryExec(ClientExecChain requestExecutor, RetryLoop retryLoop) {
+    this.requestExecutor = requestExecutor;
+    this.retryLoop = retryLoop;
+  }
+
+  /**
+   * Send the requests of the client through the retry loop. The {@link ServiceUnavailableRetryExec} and
+   * {@link RetryExec} of the client are removed, their retries would bypass the gate, the circuit breaker, the retry
+   * budget and the {@link TransferDeadline}.
+   *
+   * @param httpClient the client, its chain is wrapped only once
+   * @param retryLoop the loop sending the attempts
+   * @throws IllegalAccessException if the chain of the client can't be changed
+   */
+  public static void install(CloseableHttpClient httpClient, RetryLoop retryLoop) throws IllegalAccessException {
+    synchronized (httpClient) {
+      ClientExecChain execChain = (ClientExecChain) ReflectionUtils.getValueIncludingSuperclasses("execChain", httpClient);
+      if (execChain instanceof RateLimitRetryExec) {
+        return;
+      }
+      ReflectionUtils.setVariableValueInObject(httpClient, "execChain",
+          new RateLimitRetryExec(withoutRetries(execChain), retryLoop));
+    }
+  }
+
+  /**
+   * Unlink the retry executors from the chain
+   *
+   * @param execChain the outermost executor of the chain
+   * @return the outermost remaining executor
+   */
+  static ClientExecChain withoutRetries(ClientExecChain execChain) throws IllegalAccessException {
+    ClientExecChain head = skipRetries(execChain);
+    for (ClientExecChain current = head; current != null; ) {
+      ClientExecChain next = getNext(current);
+      ClientExecChain remaining = skipRetries(next);
+      if (remaining != next) {
+        ReflectionUtils.setVariableValueInObject(current, "requestExecutor", remaining);
+      }
+      current = remaining;
+    }
+    return head;
+  }
+
+  private static ClientExecChain skipRetries(ClientExecChain execChain) throws IllegalAccessException {
+    while (execChain instanceof ServiceUnavailableRetryExec || execChain instanceof RetryExec) {
+      execChain = getNext(execChain);
+    }
+    return execChain;
+  }
+
+  /**
+   * @return the executor wrapped by the given one or {@code null} for the innermost executor
+   */
+  private static ClientExecChain getNext(ClientExecChain execChain) throws IllegalAccessException {
+    if (ReflectionUtils.getFieldByNameIncludingSuperclasses("requestExecutor", execChain.getClass()) == null) {
+      return null;
+    }
+    Object next = ReflectionUtils.getValueIncludingSuperclasses("requestExecutor", execChain);
+    return next instanceof ClientExecChain ? (ClientExecChain) next : null;
+  }
+
+  /**
+   * @return the wrapped chain
+   */
+  public ClientExecChain getRequestExecutor() {
+    return requestExecutor;
+  }
+
+  @Override
+  public CloseableHttpResponse execute(HttpRoute route, HttpRequestWrapper request, HttpClientContext context,
+                                       HttpExecutionAware execAware) throws IOException, HttpException {
+    return retryLoop.execute(route.getTargetHost().getHostName(), request, context,
+        () -> requestExecutor.execute(route, request, context, execAware));
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.entity.DecompressingEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * Entity of a download which continues after an I/O error instead of failing. The request is sent again
+ * with {@code Range: bytes=N-} for the bytes not read yet and {@code If-Range} with the ETag or Last-Modified date
+ * of the response, so that the remaining bytes are appended to the same stream unless the resource has changed.
+ * A download is resumed {@code hereIoRetries} times in a row without progress at most.
+ */
+public class ResumableEntity extends HttpEntityWrapper {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ResumableEntity.class);
+
+  private static final String BYTES_UNIT = "bytes";
+
+  /**
+   * Sends the request resuming the download
+   */
+  @FunctionalInterface
+  public interface Requester {
+    CloseableHttpResponse execute(HttpUriRequest request) throws IOException, HttpException;
+  }
+
+  private final CloseableHttpResponse response;
+  private final URI uri;
+  private final String validator;
+  private final Requester requester;
+  private final int maxResumes;
+
+  ResumableEntity(CloseableHttpResponse response, URI uri, String validator, Requester requester, int maxResumes) {
+    super(response.getEntity());
+    this.response = response;
+    this.uri = uri;
+    this.validator = validator;
+    this.requester = requester;
+    this.maxResumes = maxResumes;
+  }
+
+  /**
+   * Make the download of the response resumable if the response has a validator for {@code If-Range}
+   * and its content isn't decoded, i.e. the bytes read match the bytes of the resource
+   *
+   * @param request the GET request of the download
+   * @param response successful response to the request
+   * @param requester sends the requests resuming the download
+   */
+  public static void makeResumable(HttpUriRequest request, CloseableHttpResponse response, Requester requester) {
+    HttpEntity entity = response.getEntity();
+    if (RetryLoop.MAX_IO_RETRIES <= 0 || entity == null || entity instanceof DecompressingEntity) {
+      return;
+    }
+    String validator = getValidator(response);
+    if (validator != null) {
+      response.setEntity(new ResumableEntity(response, request.getURI(), validator, requester, RetryLoop.MAX_IO_RETRIES));
+    }
+  }
+
+  /**
+   * @return strong ETag or Last-Modified date of the response, {@code null} if it has neither
+   */
+  static String getValidator(HttpResponse response) {
+    String etag = getHeaderValue(response, HttpHeaders.ETAG);
+    // weak ETags must not be used in If-Range
+    if (etag != null && !etag.startsWith("W/")) {
+      return etag;
+    }
+    return getHeaderValue(response, HttpHeaders.LAST_MODIFIED);
+  }
+
+  private static String getHeaderValue(HttpResponse response, String name) {
+    Header header = response.getFirstHeader(name);
+    return header == null || header.getValue() == null || header.getValue().isEmpty() ? null : header.getValue();
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    return new ResumableInputStream(super.getContent());
+  }
+
+  @Override
+  public void writeTo(OutputStream outStream) throws IOException {
+    try (InputStream content = getContent()) {
+      byte[] buffer = new byte[8192];
+      int length;
+      while ((length = content.read(buffer)) != -1) {
+        outStream.write(buffer, 0, length);
+      }
+    }
+  }
+
+  private final class ResumableInputStream extends InputStream {
+
+    private InputStream in;
+    private CloseableHttpResponse current = response;
+    private long position;
+    private int resumesWithoutProgress;
+
+    private ResumableInputStream(InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      while (true) {
+        try {
+          int b = in.read();
+          if (b >= 0) {
+            onProgress(1);
+          }
+          return b;
+        } catch (IOException exp) {
+          resume(exp);
+        }
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      while (true) {
+        try {
+          int length = in.read(b, off, len);
+          if (length > 0) {
+            onProgress(length);
+          }
+          return length;
+        } catch (IOException exp) {
+          resume(exp);
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        in.close();
+      } finally {
+        current.close();
+      }
+    }
+
+    private void onProgress(int length) {
+      position += length;
+      resumesWithoutProgress = 0;
+    }
+
+    /**
+     * Continue the download with a range request
+     *
+     * @param cause the error of the download
+     * @throws IOException the cause if the download can't be resumed
+     */
+    private void resume(IOException cause) throws IOException {
+      // closing the response aborts the connection instead of reading the remaining content
+      closeQuietly(current);
+      while (true) {
+        if (resumesWithoutProgress >= maxResumes || !RetryLoop.isRetriable(cause)) {
+          throw cause;
+        }
+        long backoff = RetryLoop.getBackoff(++resumesWithoutProgress);
+        LOG.info("Download of {} failed at byte {} with {}. Resuming in {} ms", uri, position, cause, backoff);
+        RateLimitGate.sleepWithJitter(backoff);
+
+        HttpGet rangeRequest = new HttpGet(uri);
+        rangeRequest.setHeader(HttpHeaders.RANGE, BYTES_UNIT + "=" + position + "-");
+        rangeRequest.setHeader(HttpHeaders.IF_RANGE, validator);
+        // the offset refers to the bytes of the resource, not of an encoded representation
+        rangeRequest.setHeader(HttpHeaders.ACCEPT_ENCODING, "identity");
+        CloseableHttpResponse rangeResponse;
+        try {
+          rangeResponse = requester.execute(rangeRequest);
+        } catch (IOException exp) {
+          cause.addSuppressed(exp);
+          continue;
+        } catch (HttpException exp) {
+          cause.addSuppressed(exp);
+          throw cause;
+        }
+        if (!isContinuation(rangeResponse)) {
+          cause.addSuppressed(new IOException("Unable to resume download of " + uri + ", server responded with "
+              + rangeResponse.getStatusLine()));
+          closeQuietly(rangeResponse);
+          throw cause;
+        }
+        current = rangeResponse;
+        in = rangeResponse.getEntity().getContent();
+        return;
+      }
+    }
+
+    /**
+     * @return whether the response contains the remaining bytes of the same resource
+     */
+    private boolean isContinuation(HttpResponse rangeResponse) {
+      if (rangeResponse.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT
+          || rangeResponse.getEntity() == null) {
+        return false;
+      }
+      // bytes <first>-<last>/<length>
+      String contentRange = getHeaderValue(rangeResponse, HttpHeaders.CONTENT_RANGE);
+      return contentRange != null && contentRange.startsWith(BYTES_UNIT + " " + position + "-");
+    }
+  }
+
+  private static void closeQuietly(CloseableHttpResponse response) {
+    try {
+      response.close();
+    } catch (IOException exp) {
+      LOG.debug("Unable to close response", exp);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the retries of all requests in the JVM to a ratio of the requests, so that retries don't multiply
+ * the load of a degraded service. Every request deposits {@code hereRetryBudgetRatio} into the budget,
+ * every retry withdraws one. The budget starts with a reserve for the first retries and is capped,
+ * so that a long healthy build doesn't save up retries.
+ */
+public class RetryBudget {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RetryBudget.class);
+
+  private static final String RATIO_PROPERTY = "hereRetryBudgetRatio";
+  private static final double DEFAULT_RATIO = 0.1;
+
+  static final int RESERVE = 10;
+  static final int MAX_BALANCE = 100;
+
+  /**
+   * NOTE: The variable is static so that the retries of all wagon instances in the JVM share the budget.
+   */
+  private static final RetryBudget SHARED = new RetryBudget(getRatio());
+
+  /**
+   * The balance is kept in thousandths of a retry, so that deposits add up without rounding errors
+   */
+  private static final long UNIT = 1000;
+
+  private final long deposit;
+  private long balance = RESERVE * UNIT;
+
+  /**
+   * @param ratio retries allowed per request, a negative value disables the budget
+   */
+  RetryBudget(double ratio) {
+    this.deposit = ratio < 0 ? -1 : Math.round(ratio * UNIT);
+  }
+
+  public static RetryBudget shared() {
+    return SHARED;
+  }
+
+  /**
+   * Record a request
+   */
+  public synchronized void onRequest() {
+    if (deposit > 0) {
+      balance = Math.min(MAX_BALANCE * UNIT, balance + deposit);
+    }
+  }
+
+  /**
+   * Withdraw a retry from the budget
+   *
+   * @return whether the retry is allowed
+   */
+  public synchronized boolean tryRetry() {
+    if (deposit < 0) {
+      return true;
+    }
+    if (balance < UNIT) {
+      return false;
+    }
+    balance -= UNIT;
+    return true;
+  }
+
+  static double getRatio() {
+    String ratio = System.getProperty(RATIO_PROPERTY);
+    if (ratio == null || ratio.isEmpty()) {
+      return DEFAULT_RATIO;
+    }
+    try {
+      return Double.parseDouble(ratio);
+    } catch (NumberFormatException exp) {
+      LOG.warn("System property {} has value {} but a number is expected, using {}", RATIO_PROPERTY, ratio, DEFAULT_RATIO);
+      return DEFAULT_RATIO;
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sends a request and retries it according to the {@link XRateLimitServiceUnavailableRetryStrategy}.
+ * Every attempt waits at the {@link RateLimitGate}, passes the {@link CircuitBreaker} of the host and holds a permit
+ * of the {@link AdaptiveConcurrencyLimiter} until its response headers arrive, the body is streamed without
+ * a permit. Every retry is withdrawn from the {@link RetryBudget}. No attempt is sent after
+ * the {@link TransferDeadline}.
+ * Idempotent requests failed with an I/O error, e.g. a connection reset or a read timeout, are retried
+ * {@code hereIoRetries} times with an exponential backoff.
+ * Used by both the Apache HttpClient and the HTTP/2 transport.
+ */
+public class RetryLoop {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RetryLoop.class);
+
+  private static final String IO_RETRIES_PROPERTY = "hereIoRetries";
+  private static final int DEFAULT_IO_RETRIES = 3;
+
+  static final int MAX_IO_RETRIES = Integer.getInteger(IO_RETRIES_PROPERTY, DEFAULT_IO_RETRIES);
+
+  static final long BACKOFF_BASE_MILLIS = 500;
+  static final long MAX_BACKOFF_MILLIS = 10000;
+
+  private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS"));
+
+  private final XRateLimitServiceUnavailableRetryStrategy retryStrategy;
+  private final RateLimitGate rateLimitGate;
+  private final CircuitBreaker circuitBreaker;
+  private final RetryBudget retryBudget;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final int maxIoRetries;
+
+  public RetryLoop(XRateLimitServiceUnavailableRetryStrategy retryStrategy) {
+    this(retryStrategy, RateLimitGate.shared(), CircuitBreaker.shared(), RetryBudget.shared());
+  }
+
+  RetryLoop(XRateLimitServiceUnavailableRetryStrategy retryStrategy, RateLimitGate rateLimitGate,
+            CircuitBreaker circuitBreaker, RetryBudget retryBudget) {
+    this(retryStrategy, rateLimitGate, circuitBreaker, retryBudget, MAX_IO_RETRIES);
+  }
+
+  RetryLoop(XRateLimitServiceUnavailableRetryStrategy retryStrategy, RateLimitGate rateLimitGate,
+            CircuitBreaker circuitBreaker, RetryBudget retryBudget, int maxIoRetries) {
+    this(retryStrategy, rateLimitGate, circuitBreaker, retryBudget, AdaptiveConcurrencyLimiter.shared(), maxIoRetries);
+  }
+
+  RetryLoop(XRateLimitServiceUnavailableRetryStrategy retryStrategy, RateLimitGate rateLimitGate,
+            CircuitBreaker circuitBreaker, RetryBudget retryBudget, AdaptiveConcurrencyLimiter concurrencyLimiter,
+            int maxIoRetries) {
+    this.retryStrategy = retryStrategy;
+    this.rateLimitGate = rateLimitGate;
+    this.circuitBreaker = circuitBreaker;
+    this.retryBudget = retryBudget;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.maxIoRetries = maxIoRetries;
+  }
+
+  /**
+   * Single attempt to send the request
+   */
+  @FunctionalInterface
+  public interface Attempt {
+    CloseableHttpResponse execute() throws IOException, HttpException;
+  }
+
+  /**
+   * Send the request, retrying it while the strategy and the budget allow it. Attempts failed with an I/O error
+   * count towards the retries of the strategy as well.
+   *
+   * @param host target host name
+   * @param request the request, retried only if its entity is repeatable
+   * @param context context of the request, providing the target host to the retry strategy
+   * @param attempt sends the request once
+   * @return the last response
+   * @throws IOException if an attempt fails, the circuit of the host is open or the deadline passed
+   * @throws HttpException in case of an HTTP protocol error
+   */
+  public CloseableHttpResponse execute(String host, HttpRequest request, HttpContext context, Attempt attempt)
+      throws IOException, HttpException {
+    retryBudget.onRequest();
+    int ioRetries = 0;
+    for (int executionCount = 1; ; executionCount++) {
+      TransferDeadline.check(rateLimitGate.getDelay(host));
+      rateLimitGate.await(host);
+      circuitBreaker.acquire(host);
+      CloseableHttpResponse response;
+      try {
+        response = send(host, request, attempt);
+      } catch (ConnectionPoolTimeoutException exp) {
+        // the local connection pool is exhausted, the host is not to blame
+        circuitBreaker.onIgnored(host);
+        throw exp;
+      } catch (IOException exp) {
+        circuitBreaker.onFailure(host);
+        if (ioRetries >= maxIoRetries || !isIdempotent(request) || !isRepeatable(request) || !isRetriable(exp)) {
+          throw exp;
+        }
+        long backoff = getBackoff(++ioRetries);
+        // fail with the cause rather than the deadline if the retry can't be sent in time
+        if (TransferDeadline.remainingMillis() <= backoff || !retryBudget.tryRetry()) {
+          throw exp;
+        }
+        LOG.info("Request to {} failed with {}. Retrying in {} ms", host, exp, backoff);
+        RateLimitGate.sleepWithJitter(backoff);
+        continue;
+      } catch (HttpException | RuntimeException exp) {
+        circuitBreaker.onFailure(host);
+        throw exp;
+      }
+      try {
+        if (retryStrategy.isRateLimited(response)) {
+          // throttled requests wait at the rate limit gate instead of opening the circuit
+          circuitBreaker.onIgnored(host);
+        } else if (isServerError(response)) {
+          circuitBreaker.onFailure(host);
+        } else {
+          circuitBreaker.onSuccess(host);
+        }
+        if (!retryStrategy.retryRequest(response, executionCount, context) || !isRepeatable(request)) {
+          return response;
+        }
+        if (!retryBudget.tryRetry()) {
+          LOG.debug("Retry budget exhausted, not retrying request to {}", host);
+          return response;
+        }
+        long retryInterval = retryStrategy.getRetryInterval(response);
+        EntityUtils.consumeQuietly(response.getEntity());
+        response.close();
+        RateLimitGate.sleepWithJitter(retryInterval);
+      } catch (IOException | RuntimeException exp) {
+        response.close();
+        throw exp;
+      }
+    }
+  }
+
+  /**
+   * Send a single attempt holding a permit of the concurrency limiter, so that the latency sample of the limiter
+   * covers the round trip only, not the pauses and backoffs between the attempts
+   */
+  private CloseableHttpResponse send(String host, HttpRequest request, Attempt attempt)
+      throws IOException, HttpException {
+    AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(host);
+    AdaptiveConcurrencyLimiter.Outcome outcome = AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+    try {
+      CloseableHttpResponse response = attempt.execute();
+      outcome = getOutcome(request, response);
+      return response;
+    } catch (IOException exp) {
+      // failing to connect is a network or DNS problem of the client rather than an overload of the host
+      if (isConnectFailure(exp)) {
+        outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+      }
+      throw exp;
+    } finally {
+      permit.release(outcome);
+    }
+  }
+
+  /**
+   * Classify the response for the concurrency limit. The latency of uploads depends on the file size
+   * rather than on the load of the service.
+   */
+  private static AdaptiveConcurrencyLimiter.Outcome getOutcome(HttpRequest request, CloseableHttpResponse response) {
+    int status = response.getStatusLine().getStatusCode();
+    if (status == HttpStatus.SC_TOO_MANY_REQUESTS || status == HttpStatus.SC_SERVICE_UNAVAILABLE) {
+      return AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+    }
+    if (request instanceof HttpEntityEnclosingRequest && ((HttpEntityEnclosingRequest) request).getEntity() != null) {
+      return AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+    }
+    return AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+  }
+
+  /**
+   * Whether the connection to the host couldn't be established, including a timeout of the local connection pool
+   */
+  static boolean isConnectFailure(IOException exp) {
+    return exp instanceof ConnectException
+        || exp instanceof ConnectTimeoutException
+        || exp instanceof HttpConnectTimeoutException
+        || exp instanceof NoRouteToHostException
+        || exp instanceof UnknownHostException;
+  }
+
+  private static boolean isServerError(CloseableHttpResponse response) {
+    int status = response.getStatusLine().getStatusCode();
+    return status >= HttpStatus.SC_INTERNAL_SERVER_ERROR && status != HttpStatus.SC_NOT_IMPLEMENTED;
+  }
+
+  /**
+   * @param retry number of the retry, starting with 1
+   * @return time to wait before the retry
+   */
+  static long getBackoff(int retry) {
+    return Math.min(MAX_BACKOFF_MILLIS, BACKOFF_BASE_MILLIS << Math.min(retry - 1, 20));
+  }
+
+  /**
+   * Whether sending the request again has the same effect as sending it once, i.e. GET, HEAD and OPTIONS requests
+   * and the requests marked as {@link IdempotentHttpPut}
+   */
+  static boolean isIdempotent(HttpRequest request) {
+    HttpRequest original =
+        request instanceof HttpRequestWrapper ? ((HttpRequestWrapper) request).getOriginal() : request;
+    return original instanceof IdempotentHttpPut
+        || IDEMPOTENT_METHODS.contains(request.getRequestLine().getMethod());
+  }
+
+  /**
+   * Whether the error may be gone on the next attempt. Unknown hosts, TLS and protocol errors are permanent,
+   * interrupts and the errors raised instead of sending the request are not retried either.
+   */
+  static boolean isRetriable(IOException exp) {
+    if (exp instanceof InterruptedIOException) {
+      return (exp instanceof SocketTimeoutException || exp instanceof ConnectTimeoutException)
+          && !Thread.currentThread().isInterrupted();
+    }
+    return !(exp instanceof UnknownHostException
+        || exp instanceof SSLException
+        || exp instanceof ClientProtocolException
+        || exp instanceof CircuitBreaker.CircuitBreakerOpenException
+        || exp instanceof TransferDeadline.DeadlineExceededException);
+  }
+
+  static boolean isRepeatable(HttpRequest request) {
+    if (request instanceof HttpEntityEnclosingRequest) {
+      HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+      return entity == null || entity.isRepeatable();
+    }
+    return true;
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.maven.wagon.shared.http.AbstractHttpClientWagon;
+import org.codehaus.plexus.util.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool shared by all HTTP clients of the plugin in the JVM. The data transfers and register calls
+ * of all wagons already use the static pool of {@link AbstractHttpClientWagon}. When enabled via the
+ * {@code hereSharedConnectionPool} system property, the clients of the Lookup API and HERE Account use that pool too.
+ * Connections are pooled per route, i.e. per target host and proxy, and share one TLS context,
+ * so TLS sessions are resumed across connections. Idle connections are closed in the background.
+ */
+public class SharedConnectionPool {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SharedConnectionPool.class);
+
+  private static final String ENABLED_PROPERTY = "hereSharedConnectionPool";
+  private static final String MAX_PER_ROUTE_PROPERTY = "hereMaxConnectionsPerRoute";
+  private static final String IDLE_TIMEOUT_PROPERTY = "hereConnectionIdleTimeoutSeconds";
+  private static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+
+  /**
+   * NOTE: The variable is static so that all wagon instances in the JVM share the pool.
+   */
+  private static final SharedConnectionPool SHARED = new SharedConnectionPool(
+      Boolean.getBoolean(ENABLED_PROPERTY),
+      Integer.getInteger(MAX_PER_ROUTE_PROPERTY, 0),
+      Long.getLong(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_SECONDS));
+
+  private final boolean enabled;
+  private final int maxPerRoute;
+  private final long idleTimeoutSeconds;
+
+  private HttpClientConnectionManager connectionManager;
+
+  /**
+   * @param enabled whether the clients share the pool
+   * @param maxPerRoute maximum connections per route, a non-positive value keeps the wagon's setting
+   * @param idleTimeoutSeconds idle time after which connections are closed, a non-positive value disables eviction
+   */
+  SharedConnectionPool(boolean enabled, int maxPerRoute, long idleTimeoutSeconds) {
+    this.enabled = enabled;
+    this.maxPerRoute = maxPerRoute;
+    this.idleTimeoutSeconds = idleTimeoutSeconds;
+  }
+
+  public static SharedConnectionPool shared() {
+    return SHARED;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Let the client use the shared pool if enabled
+   *
+   * @param builder client builder
+   * @return the builder
+   */
+  public HttpClientBuilder configure(HttpClientBuilder builder) {
+    if (enabled) {
+      builder.setConnectionManager(getConnectionManager()).setConnectionManagerShared(true);
+    }
+    return builder;
+  }
+
+  /**
+   * Return the pool of the wagons, configured and with idle eviction started on first use
+   *
+   * @return the shared connection manager
+   */
+  synchronized HttpClientConnectionManager getConnectionManager() {
+    if (connectionManager == null) {
+      connectionManager = lookupWagonConnectionManager();
+      if (maxPerRoute > 0 && connectionManager instanceof PoolingHttpClientConnectionManager) {
+        PoolingHttpClientConnectionManager pool = (PoolingHttpClientConnectionManager) connectionManager;
+        pool.setDefaultMaxPerRoute(maxPerRoute);
+        pool.setMaxTotal(Math.max(pool.getMaxTotal(), maxPerRoute));
+      }
+      if (idleTimeoutSeconds > 0) {
+        startEvictor(connectionManager);
+      }
+    }
+    return connectionManager;
+  }
+
+  private void startEvictor(HttpClientConnectionManager manager) {
+    ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "artifact-wagon-connection-evictor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(idleTimeoutSeconds / 2, 1);
+    evictor.scheduleWithFixedDelay(() -> {
+      manager.closeExpiredConnections();
+      manager.closeIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS);
+    }, period, period, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Open a connection to the host in the pool of the wagons without sending a request, so that the TLS handshake
+   * is done before the first request. The connection is reused by requests on the direct route to the host.
+   *
+   * @param uri URI of the host
+   * @param connectTimeoutMillis connect timeout
+   * @throws IOException if the connection fails
+   */
+  public void preconnect(URI uri, int connectTimeoutMillis) throws IOException {
+    HttpClientConnectionManager manager = findWagonConnectionManager();
+    if (manager != null) {
+      preconnect(manager, uri, connectTimeoutMillis);
+    }
+  }
+
+  static void preconnect(HttpClientConnectionManager manager, URI uri, int connectTimeoutMillis) throws IOException {
+    HttpHost target = URIUtils.extractHost(uri);
+    boolean secure = "https".equalsIgnoreCase(target.getSchemeName());
+    if (target.getPort() < 0) {
+      // the route planner of the client resolves the default port, so the route must use it too
+      target = new HttpHost(target.getHostName(), secure ? 443 : 80, target.getSchemeName());
+    }
+    HttpRoute route = new HttpRoute(target, null, secure);
+    HttpClientConnection connection;
+    try {
+      connection = manager.requestConnection(route, null).get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException exp) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a connection to " + target);
+    } catch (ExecutionException exp) {
+      throw new IOException("Unable to lease a connection to " + target, exp.getCause());
+    }
+    boolean reusable = false;
+    try {
+      if (!connection.isOpen()) {
+        HttpClientContext context = HttpClientContext.create();
+        manager.connect(connection, route, connectTimeoutMillis, context);
+        manager.routeComplete(connection, route, context);
+      }
+      reusable = true;
+    } finally {
+      if (!reusable) {
+        connection.close();
+      }
+      manager.releaseConnection(connection, null, reusable ? -1 : 0, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * The connection manager of the wagons is created once per JVM but not exposed, so it is read via reflection
+   */
+  static HttpClientConnectionManager lookupWagonConnectionManager() {
+    HttpClientConnectionManager manager = findWagonConnectionManager();
+    return manager != null ? manager : new PoolingHttpClientConnectionManager();
+  }
+
+  private static HttpClientConnectionManager findWagonConnectionManager() {
+    try {
+      Field field = ReflectionUtils.getFieldByNameIncludingSuperclasses(
+          "httpClientConnectionManager", AbstractHttpClientWagon.class);
+      field.setAccessible(true);
+      return (HttpClientConnectionManager) field.get(null);
+    } catch (Exception exp) {
+      LOG.debug("Unable to access the connection pool of the wagons, using a separate pool", exp);
+      return null;
+    }
+  }
+}
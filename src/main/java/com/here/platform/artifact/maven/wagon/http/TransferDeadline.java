@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of a transfer, covering the register call, the wait for the token and all retries until the
+ * response of the transfer arrives. Retries which can't be sent before the deadline are given up,
+ * so that a single artifact doesn't block a resolver thread for minutes.
+ * The budget is set by the {@code hereTransferTimeoutSeconds} system property, it is disabled by default
+ * as large artifacts may legitimately take longer than any fixed budget.
+ *
+ * <p>A wagon transfer runs on the calling thread, so the deadline is bound to the thread for its duration.
+ */
+public final class TransferDeadline {
+
+  private static final String TIMEOUT_PROPERTY = "hereTransferTimeoutSeconds";
+  private static final long DEFAULT_TIMEOUT_SECONDS = 0;
+
+  private static final long TIMEOUT_MILLIS =
+      TimeUnit.SECONDS.toMillis(Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_SECONDS));
+
+  private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+  private static final Scope NO_SCOPE = () -> {
+  };
+
+  private TransferDeadline() {
+  }
+
+  /**
+   * Start the deadline of a transfer on the current thread, unless a transfer is already running on it
+   *
+   * @return the scope to end in a {@code finally} block at the end of the transfer
+   */
+  public static Scope start() {
+    return start(TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Start the deadline of a transfer with the given budget on the current thread, unless a transfer is already
+   * running on it
+   *
+   * @param timeoutMillis time budget of the transfer, {@code 0} for no deadline
+   * @return the scope to end in a {@code finally} block at the end of the transfer
+   */
+  public static Scope start(long timeoutMillis) {
+    if (timeoutMillis <= 0 || DEADLINE.get() != null) {
+      return NO_SCOPE;
+    }
+    DEADLINE.set(System.currentTimeMillis() + timeoutMillis);
+    return DEADLINE::remove;
+  }
+
+  /**
+   * @return the time left for the transfer on the current thread, {@link Long#MAX_VALUE} if there is no deadline
+   */
+  public static long remainingMillis() {
+    Long deadline = DEADLINE.get();
+    return deadline == null ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+  }
+
+  /**
+   * Fail if the transfer can't be done within its deadline
+   *
+   * @param delayMillis time to wait before the next request
+   * @throws DeadlineExceededException if the deadline passes before the request is sent
+   */
+  public static void check(long delayMillis) throws DeadlineExceededException {
+    long remaining = remainingMillis();
+    if (remaining <= delayMillis) {
+      throw new DeadlineExceededException();
+    }
+  }
+
+  /**
+   * Scope of a transfer deadline. It isn't {@link AutoCloseable}, as the scope is never referenced
+   * within the transfer.
+   */
+  @FunctionalInterface
+  public interface Scope {
+
+    /**
+     * End the deadline of the transfer on the current thread
+     */
+    void end();
+  }
+
+  /**
+   * Thrown instead of sending a request after the deadline of the transfer
+   */
+  public static class DeadlineExceededException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException() {
+      super("Transfer can't complete within its deadline, see the hereTransferTimeoutSeconds system property");
+    }
+  }
+}
@@ -18,88 +18,47 @@
  */
 package com.here.platform.artifact.maven.wagon.resolver;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.cache.FileCache;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Properties;
 
 /**
- * Return Artifact Service URL cached in temporary file
+ * Return Artifact Service URL cached in temporary file.
+ * Every URL expires individually and the file can be updated concurrently by several Maven processes.
  */
 class ArtifactServiceUrlFileResolver implements ArtifactServiceUrlResolver {
 
-  private static final Logger LOG = LoggerFactory.getLogger(ArtifactServiceUrlFileResolver.class);
+  private static final String FILE_NAME = "artifact_wagon_url_cache.json";
 
-  private static final String FILE_NAME = "artifact_wagon_url_cache.properties";
+  private static final Duration MAX_ENTRY_AGE = Duration.ofMinutes(5);
 
-  private static final long MAX_FILE_AGE_MINUTES = 5;
+  private final FileCache<String> fileCache;
 
-  @Override
-  public String resolveArtifactServiceUrl(String tokenUrl) {
-    try {
-      Properties prop = loadCachedProperties(getCacheFile());
-      return prop.getOrDefault(tokenUrl, "").toString();
-    } catch (Exception e) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Can't resolve Artifact Service URL from file", e);
-      } else {
-        LOG.warn("Can't resolve Artifact Service URL from file");
-      }
-      return "";
-    }
+  ArtifactServiceUrlFileResolver() {
+    this(Paths.get(System.getProperty("java.io.tmpdir"), FILE_NAME));
   }
 
-  @Override
-  public void afterUrlResolved(String tokenUrl, String resolvedUrl) {
-    try {
-      Path cacheFile = getCacheFile();
-      Properties prop = loadCachedProperties(cacheFile);
-      try (OutputStream output = Files.newOutputStream(cacheFile)) {
-        prop.put(tokenUrl, resolvedUrl);
-        prop.store(output, "Artifact Service URL cache");
-      }
-    } catch (Exception e) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Failed to update Artifact Service URL in temp file", e);
-      }
-    }
+  ArtifactServiceUrlFileResolver(Path cacheFile) {
+    this.fileCache = new FileCache<>(cacheFile, String.class, new ObjectMapper());
   }
 
-  private Properties loadCachedProperties(Path path) throws IOException {
-    try (InputStream input = Files.newInputStream(path)) {
-      Properties prop = new Properties();
-      prop.load(input);
-      return prop;
-    }
+  @Override
+  public String resolveArtifactServiceUrl(String tokenUrl) {
+    String resolvedUrl = fileCache.get(tokenUrl);
+    return resolvedUrl == null ? "" : resolvedUrl;
   }
 
-  private Path getCacheFile() throws IOException {
-    Path path = Paths.get(System.getProperty("java.io.tmpdir"), FILE_NAME);
-    File file = path.toFile();
-    if (!file.createNewFile()) {
-      if (isFileOlderThan(path, MAX_FILE_AGE_MINUTES)) {
-        file.delete();
-        file.createNewFile();
-      }
-    }
-    return path;
+  @Override
+  public void afterUrlResolved(String tokenUrl, String resolvedUrl) {
+    fileCache.put(tokenUrl, resolvedUrl, MAX_ENTRY_AGE.toMillis());
   }
 
-  private boolean isFileOlderThan(Path path, long minutes) throws IOException {
-    Instant fileInstant = Files.readAttributes(path, BasicFileAttributes.class).creationTime().toInstant();
-    Instant now = Instant.now();
-    Duration difference = Duration.between(fileInstant, now);
-    return difference.toMinutes() > minutes;
+  @Override
+  public void invalidate(String tokenUrl) {
+    fileCache.remove(tokenUrl);
   }
 
 }
@@ -42,4 +42,9 @@ class ArtifactServiceUrlInMemoryCachedResolver implements ArtifactServiceUrlReso
     tokenUrlToArtSvcUrl.put(tokenUrl, resolvedUrl);
   }
 
+  @Override
+  public void invalidate(String tokenUrl) {
+    tokenUrlToArtSvcUrl.remove(tokenUrl);
+  }
+
 }
@@ -19,6 +19,7 @@
 package com.here.platform.artifact.maven.wagon.resolver;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.cache.ExpiringCache;
 import com.here.platform.artifact.maven.wagon.model.LookupPlatformApisResponse;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
@@ -26,8 +27,11 @@ import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -36,9 +40,13 @@ import java.util.stream.Stream;
 
 /**
  * Resolves Artifact Service URL based on here token URL and lookup API.
+ * The whole API catalog returned by the lookup API is cached per token URL,
+ * so that the base URLs of all platform APIs are resolved with a single request.
  */
 class ArtifactServiceUrlLookupResolver implements ArtifactServiceUrlResolver {
 
+  private static final Logger LOG = LoggerFactory.getLogger(ArtifactServiceUrlLookupResolver.class);
+
   private static final String TOKEN_PROD_URL = "https://account.api.here.com/oauth2/token";
 
   private static final String TOKEN_STAGING_URL = "https://stg.account.api.here.com/oauth2/token";
@@ -63,6 +71,21 @@ class ArtifactServiceUrlLookupResolver implements ArtifactServiceUrlResolver {
   private static final String TOKEN_CN_REGIONAL_STAGING_URL =
       "https://elb.cn-northwest-1.account.sit.hereapi.cn/oauth2/token";
 
+  private static final String ARTIFACT_API = "artifact";
+
+  private static final String ARTIFACT_API_VERSION = "v1";
+
+  private static final int MAX_CACHED_CATALOGS = 16;
+
+  private static final Duration CATALOG_TTL = Duration.ofHours(1);
+
+  /**
+   * Store the API catalog per token URL.
+   * NOTE: The variable is static so that the catalog is pulled only the first time and is reused by all wagons.
+   */
+  private static final ExpiringCache<String, LookupPlatformApisResponse[]> SHARED_CATALOG_CACHE =
+      new ExpiringCache<>(MAX_CACHED_CATALOGS, CATALOG_TTL);
+
   private static final Map<String, String> URL_MAPPING;
 
   static {
@@ -82,9 +105,25 @@ class ArtifactServiceUrlLookupResolver implements ArtifactServiceUrlResolver {
 
   private final ObjectMapper objectMapper;
 
+  private final ExpiringCache<String, LookupPlatformApisResponse[]> catalogCache;
+
+  /**
+   * The HTTP client is created on first use and kept open until {@link #close()}, so that its pooled connections
+   * are reused.
+   */
+  private volatile CloseableHttpClient httpClient;
+
   public ArtifactServiceUrlLookupResolver(Supplier<CloseableHttpClient> httpClientFactory, ObjectMapper objectMapper) {
+    this(httpClientFactory, objectMapper, SHARED_CATALOG_CACHE);
+  }
+
+  ArtifactServiceUrlLookupResolver(
+      Supplier<CloseableHttpClient> httpClientFactory,
+      ObjectMapper objectMapper,
+      ExpiringCache<String, LookupPlatformApisResponse[]> catalogCache) {
     this.httpClientFactory = httpClientFactory;
     this.objectMapper = objectMapper;
+    this.catalogCache = catalogCache;
   }
 
   /**
@@ -95,32 +134,106 @@ class ArtifactServiceUrlLookupResolver implements ArtifactServiceUrlResolver {
    */
   @Override
   public String resolveArtifactServiceUrl(String tokenUrl) {
-    String artifactApiLookupUrl = getApiLookupUrl(tokenUrl) + "/platform/apis/artifact/v1";
-    HttpGet httpGet = new HttpGet(artifactApiLookupUrl);
+    String baseUrl = resolveApiBaseUrl(tokenUrl, ARTIFACT_API, ARTIFACT_API_VERSION);
+    if (baseUrl == null) {
+      throw new RuntimeException("No Artifact Service URL found via Lookup API");
+    }
+    return baseUrl + "/artifact";
+  }
 
-    try (CloseableHttpClient closeableHttpClient = httpClientFactory.get();
-         CloseableHttpResponse httpResponse = closeableHttpClient.execute(httpGet)) {
+  /**
+   * Resolves the base URL of a platform API based on here token url and the cached API catalog.
+   *
+   * @param tokenUrl here token url
+   * @param api name of the platform API
+   * @param version version of the platform API
+   * @return base URL or {@code null} if the API is not in the catalog
+   */
+  String resolveApiBaseUrl(String tokenUrl, String api, String version) {
+    return Stream.of(getCatalog(tokenUrl))
+        .filter(r -> api.equals(r.getApi()) && version.equals(r.getVersion()))
+        .findFirst()
+        .map(LookupPlatformApisResponse::getBaseURL)
+        .orElse(null);
+  }
+
+  private LookupPlatformApisResponse[] getCatalog(String tokenUrl) {
+    String apiLookupUrl = getApiLookupUrl(tokenUrl);
+    LookupPlatformApisResponse[] catalog = catalogCache.get(apiLookupUrl);
+    if (catalog == null) {
+      catalog = requestCatalog(apiLookupUrl);
+      catalogCache.put(apiLookupUrl, catalog);
+    }
+    return catalog;
+  }
+
+  private LookupPlatformApisResponse[] requestCatalog(String apiLookupUrl) {
+    HttpGet httpGet = new HttpGet(apiLookupUrl + "/platform/apis");
+
+    try (CloseableHttpResponse httpResponse = getHttpClient().execute(httpGet)) {
       StatusLine statusLine = httpResponse.getStatusLine();
       int status = statusLine.getStatusCode();
       if (status != HttpStatus.SC_OK) {
         throw new RuntimeException("Unable to resolve Artifact Service URL. Status: " + statusLine);
       }
       HttpEntity responseEntity = httpResponse.getEntity();
-      return Stream.of(objectMapper.readValue(responseEntity.getContent(), LookupPlatformApisResponse[].class))
-          .findFirst()
-          .map(r -> r.getBaseURL() + "/artifact")
-          .orElseThrow(() -> new RuntimeException("No Artifact Service URL found via Lookup API"));
+      return objectMapper.readValue(responseEntity.getContent(), LookupPlatformApisResponse[].class);
     } catch (IOException exp) {
       String msg = String.format("Error during resolving Artifact Service URL: %s", exp.getMessage());
       throw new RuntimeException(msg, exp);
     }
   }
 
+  private CloseableHttpClient getHttpClient() {
+    CloseableHttpClient client = httpClient;
+    if (client == null) {
+      synchronized (this) {
+        client = httpClient;
+        if (client == null) {
+          client = httpClientFactory.get();
+          httpClient = client;
+        }
+      }
+    }
+    return client;
+  }
+
   @Override
   public void afterUrlResolved(String tokenUrl, String resolvedUrl) {
     //no op
   }
 
+  /**
+   * Evict the API catalog of the token URL, so that the next resolution requests the lookup API again.
+   *
+   * @param tokenUrl here token url whose API catalog is evicted
+   */
+  @Override
+  public void invalidate(String tokenUrl) {
+    String endpoint = tokenUrl.trim();
+    if (URL_MAPPING.containsKey(endpoint)) {
+      catalogCache.invalidate(URL_MAPPING.get(endpoint));
+    }
+  }
+
+  /**
+   * Close the HTTP client, a later resolution creates a new one
+   */
+  void close() {
+    CloseableHttpClient client;
+    synchronized (this) {
+      client = httpClient;
+      httpClient = null;
+    }
+    if (client != null) {
+      try {
+        client.close();
+      } catch (IOException exp) {
+        LOG.debug("Unable to close the lookup HTTP client", exp);
+      }
+    }
+  }
+
   private String getApiLookupUrl(String tokenUrl) {
     String endpoint = tokenUrl.trim();
     if (!URL_MAPPING.containsKey(endpoint)) {
@@ -32,4 +32,11 @@ interface ArtifactServiceUrlResolver {
    */
   void afterUrlResolved(String tokenUrl, String resolvedUrl);
 
+  /**
+   * Forget the URL resolved for the token URL, e.g. after the URL became unreachable.
+   *
+   * @param tokenUrl here token url whose resolved URL is forgotten
+   */
+  void invalidate(String tokenUrl);
+
 }
@@ -39,11 +39,14 @@ public class ArtifactServiceUrlResolverChain {
 
   private final List<ArtifactServiceUrlResolver> resolversChain;
 
+  private final ArtifactServiceUrlLookupResolver lookupResolver;
+
   public ArtifactServiceUrlResolverChain(Supplier<CloseableHttpClient> httpClientFactory, ObjectMapper objectMapper) {
+    this.lookupResolver = new ArtifactServiceUrlLookupResolver(httpClientFactory, objectMapper);
     this.resolversChain = Arrays.asList(
         new ArtifactServiceUrlInMemoryCachedResolver(),
         new ArtifactServiceUrlFileResolver(),
-        new ArtifactServiceUrlLookupResolver(httpClientFactory, objectMapper)
+        lookupResolver
     );
   }
 
@@ -65,6 +68,24 @@ public class ArtifactServiceUrlResolverChain {
     return resolvedUrl;
   }
 
+  /**
+   * Remove the URL resolved for the token URL from all caching resolvers.
+   *
+   * @param tokenUrl here token url whose resolved URL is removed
+   */
+  public void invalidate(String tokenUrl) {
+    for (ArtifactServiceUrlResolver artifactServiceUrlResolver : this.resolversChain) {
+      artifactServiceUrlResolver.invalidate(tokenUrl);
+    }
+  }
+
+  /**
+   * Release the HTTP client of the lookup API
+   */
+  public void close() {
+    lookupResolver.close();
+  }
+
   /**
    * Send resolved URL to all used resolvers in reverse order
    * @param usedResolvers
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.platform.artifact.maven.wagon.util;
+
+import com.here.platform.artifact.maven.wagon.http.TransferDeadline;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces concurrent calls with the same key. The first caller performs the call while
+ * concurrent callers wait for it and share its result or exception. Waiting callers give up at the
+ * {@link TransferDeadline} of their own transfer, while the call continues for the others.
+ *
+ * @param <K> key type
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Perform the call unless a call with the same key is already in flight.
+     *
+     * @param key  key of the call
+     * @param call the call to perform
+     * @return the result of the call
+     * @throws Exception the exception thrown by the call
+     * @throws TransferDeadline.DeadlineExceededException if the call in flight doesn't complete before the deadline
+     */
+    public V execute(K key, Callable<V> call) throws Exception {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V result = call.call();
+            future.complete(result);
+            return result;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * @return number of calls currently in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> future) throws Exception {
+        long remaining = TransferDeadline.remainingMillis();
+        try {
+            if (remaining == Long.MAX_VALUE) {
+                return future.get();
+            }
+            return future.get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TransferDeadline.DeadlineExceededException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -19,6 +19,10 @@
 
 package com.here.platform.artifact.maven.wagon.util;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 /**
  * Helper class covering common String operations.
  */
@@ -44,4 +48,26 @@ public class StringUtils {
     public static String defaultIfEmpty(String string, String defaultValue) {
         return isEmpty(string) ? defaultValue : string;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the SHA-256 digest of the string, e.g. to use a secret as part of a key without keeping it.
+     *
+     * @param string the string to digest
+     * @return the hex encoded digest or an empty string if the string is null
+     */
+    public static String sha256(String string) {
+        if (string == null) {
+            return "";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(string.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException exp) {
+            throw new IllegalStateException("SHA-256 is not available", exp);
+        }
+    }
+}
@@ -18,10 +18,17 @@
  */
 package com.here.platform.artifact.maven.wagon;
 
+import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
+import java.net.ConnectException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -29,33 +36,62 @@ import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicStatusLine;
 import org.apache.http.util.EntityUtils;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
 import org.apache.maven.wagon.repository.Repository;
 import org.apache.maven.wagon.resource.Resource;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.cache.ExpiringCache;
+import com.here.platform.artifact.maven.wagon.cache.MissingArtifactCache;
+import com.here.platform.artifact.maven.wagon.cache.RegisterResponseCache;
 import com.here.platform.artifact.maven.wagon.model.RegisterResponse;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class ArtifactWagonTest {
 
   private static ProtocolVersion protocolVersion = new ProtocolVersion("http", 1, 0);
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private ArtifactWagon artifactWagon;
   private Repository repository;
   private Map<String, HttpResponse> responses;
+  private List<String> requests;
+  private RegisterResponseCache registerResponseCache;
+  private MissingArtifactCache missingArtifactCache;
+  private int defaultUrlResolutions;
 
   @Before
   public void setup() throws IllegalAccessException {
     responses = new HashMap<>();
+    requests = Collections.synchronizedList(new ArrayList<>());
+    registerResponseCache =
+        new RegisterResponseCache(
+            new ExpiringCache<>(100, Duration.ofMinutes(1)),
+            new ExpiringCache<>(100, Duration.ofMinutes(1)),
+            null,
+            Duration.ZERO);
+    missingArtifactCache =
+        new MissingArtifactCache(new ExpiringCache<>(100, Duration.ofMinutes(1)), null, Duration.ofMinutes(1));
     repository = new Repository("example-repo", "here+https://example.com/artifact");
 
     artifactWagon =
@@ -63,9 +99,20 @@ public class ArtifactWagonTest {
 
           @Override
           String getDefaultArtifactServiceUrl() {
+            defaultUrlResolutions++;
             return "https://artifact.api.platform.here.com/v1/artifact";
           }
 
+          @Override
+          RegisterResponseCache getRegisterResponseCache() {
+            return registerResponseCache;
+          }
+
+          @Override
+          MissingArtifactCache getMissingArtifactCache() {
+            return missingArtifactCache;
+          }
+
           @Override
           public Repository getRepository() {
             return ArtifactWagonTest.this.repository;
@@ -88,6 +135,7 @@ public class ArtifactWagonTest {
           protected CloseableHttpResponse execute(HttpUriRequest httpMethod) {
             HttpResponse response;
             String key = httpMethod.getMethod() + ":" + httpMethod.getURI().toString();
+            requests.add(key);
             if (responses.containsKey(key)) {
               response = responses.get(key);
             } else {
@@ -146,6 +194,66 @@ public class ArtifactWagonTest {
             new Repository("here-artifact", "here+artifact-service://artifact-service")));
   }
 
+  @Test
+  public void testConnectFailureResolvesPlaceholderUrlAgain() throws Exception {
+    List<String> resolvedUrls = new ArrayList<>(Arrays.asList("https://old.example.com/artifact", "https://new.example.com/artifact"));
+    Repository placeholderRepository = new Repository("here-artifact", "here+artifact-service://artifact-service");
+    ArtifactWagon wagon = new ArtifactWagon() {
+      @Override
+      String getDefaultArtifactServiceUrl() {
+        return resolvedUrls.remove(0);
+      }
+
+      @Override
+      void invalidateDefaultArtifactServiceUrl() {
+        defaultUrlResolutions++;
+      }
+
+      @Override
+      public Repository getRepository() {
+        return placeholderRepository;
+      }
+
+      @Override
+      RequestExecutor getRequestExecutor() {
+        return request -> {
+          throw new ConnectException("Connection refused");
+        };
+      }
+    };
+    // like connecting the wagon
+    placeholderRepository.setUrl(wagon.getURL(placeholderRepository));
+    assertEquals("https://old.example.com/artifact", placeholderRepository.getUrl());
+
+    try {
+      wagon.execute(new HttpGet(placeholderRepository.getUrl() + "/register"));
+      fail("ConnectException expected");
+    } catch (ConnectException expected) {
+      // expected
+    }
+    assertEquals(1, defaultUrlResolutions);
+    assertEquals("https://new.example.com/artifact", placeholderRepository.getUrl());
+    assertEquals("https://new.example.com/artifact", wagon.getURL(placeholderRepository));
+  }
+
+  @Test
+  public void testPlaceholderUrlIsResolvedOnce() {
+    Repository placeholderRepository = new Repository("here-artifact", "here+artifact-service://artifact-service");
+    artifactWagon.getURL(placeholderRepository);
+    artifactWagon.getURL(placeholderRepository);
+    assertEquals(1, defaultUrlResolutions);
+  }
+
+  @Test
+  public void testHttpProviderIsReusedPerEndpoint() {
+    assertSame(
+        artifactWagon.getHttpProvider("https://account.api.here.com/oauth2/token"),
+        artifactWagon.getHttpProvider("https://account.api.here.com/oauth2/token"));
+    assertNotSame(
+        artifactWagon.getHttpProvider("https://account.api.here.com/oauth2/token"),
+        artifactWagon.getHttpProvider("https://stg.account.api.here.com/oauth2/token"));
+  }
+
   @Test
   public void testGetStream() throws Exception {
     RegisterResponse registerResponse =
@@ -170,6 +278,165 @@ public class ArtifactWagonTest {
     assertEquals(content, output);
   }
 
+  @Test
+  public void testRegisterResponseIsCachedPerGroupAndArtifact() throws Exception {
+    String content = registerResponseContent();
+    responses.put(
+        "GET:https://example.com/artifact/register/com.example.group/test-artifact",
+        byteResponse(content.getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "GET:here+https://example.com/artifact/hrn:here:artifact:::com.example.group:test-artifact:1.0/test-artifact.jar",
+        byteResponse("jar".getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "GET:here+https://example.com/artifact/hrn:here:artifact:::com.example.group:test-artifact:1.0/test-artifact.pom",
+        byteResponse("pom".getBytes(StandardCharsets.UTF_8)));
+
+    artifactWagon.getInputStream(new Resource("com.example.group/test-artifact/1.0/test-artifact.jar"));
+    artifactWagon.getInputStream(new Resource("com.example.group/test-artifact/1.0/test-artifact.pom"));
+
+    assertEquals(
+        1,
+        requests.stream().filter(r -> r.contains("/register/")).count());
+    assertEquals(1, registerResponseCache.getMissCount());
+  }
+
+  @Test
+  public void testKnownGroupHrnPrefixIsUsedWithoutRegisterLookup() throws Exception {
+    responses.put(
+        "GET:https://example.com/artifact/register/com.example.group/test-artifact",
+        byteResponse(registerResponseContent().getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "GET:here+https://example.com/artifact/hrn:here:artifact:::com.example.group:test-artifact:1.0/test-artifact.jar",
+        byteResponse("jar".getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "GET:here+https://example.com/artifact/hrn:here:artifact:::com.example.group:other-artifact:1.0/other-artifact.jar",
+        byteResponse("other".getBytes(StandardCharsets.UTF_8)));
+
+    artifactWagon.getInputStream(new Resource("com.example.group/test-artifact/1.0/test-artifact.jar"));
+    String output = IOUtils.toString(
+        artifactWagon.getInputStream(new Resource("com.example.group/other-artifact/1.0/other-artifact.jar")),
+        StandardCharsets.UTF_8);
+
+    assertEquals("other", output);
+    assertFalse(requests.contains("GET:https://example.com/artifact/register/com.example.group/other-artifact"));
+  }
+
+  @Test
+  public void testRegisterLookupIsUsedWhenKnownGroupHrnPrefixFails() throws Exception {
+    responses.put(
+        "GET:https://example.com/artifact/register/com.example.group/test-artifact",
+        byteResponse(registerResponseContent().getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "GET:https://example.com/artifact/register/com.example.group/moved-artifact",
+        byteResponse(
+            new ObjectMapper().writeValueAsString(
+                new RegisterResponse(
+                    "com.example.group",
+                    "moved-artifact",
+                    "hrn:here:artifact:::other:moved-artifact",
+                    "hrn:here:artifact:::other",
+                    false))
+                .getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "GET:here+https://example.com/artifact/hrn:here:artifact:::com.example.group:test-artifact:1.0/test-artifact.jar",
+        byteResponse("jar".getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "GET:here+https://example.com/artifact/hrn:here:artifact:::other:moved-artifact:1.0/moved-artifact.jar",
+        byteResponse("moved".getBytes(StandardCharsets.UTF_8)));
+
+    artifactWagon.getInputStream(new Resource("com.example.group/test-artifact/1.0/test-artifact.jar"));
+    String output = IOUtils.toString(
+        artifactWagon.getInputStream(new Resource("com.example.group/moved-artifact/1.0/moved-artifact.jar")),
+        StandardCharsets.UTF_8);
+
+    assertEquals("moved", output);
+  }
+
+  @Test(expected = ResourceDoesNotExistException.class)
+  public void testMissingResourceWithKnownGroupHrnPrefix() throws Exception {
+    responses.put(
+        "GET:https://example.com/artifact/register/com.example.group/test-artifact",
+        byteResponse(registerResponseContent().getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "GET:here+https://example.com/artifact/hrn:here:artifact:::com.example.group:test-artifact:1.0/test-artifact.jar",
+        byteResponse("jar".getBytes(StandardCharsets.UTF_8)));
+
+    artifactWagon.getInputStream(new Resource("com.example.group/test-artifact/1.0/test-artifact.jar"));
+    artifactWagon.getInputStream(new Resource("com.example.group/test-artifact/1.0/test-artifact.jar.asc"));
+  }
+
+  @Test
+  public void testMissingArtifactIsNotLookedUpAgain() throws Exception {
+    Resource resource = new Resource("org.example/central-artifact/1.0/central-artifact.jar");
+    for (int i = 0; i < 2; i++) {
+      try {
+        artifactWagon.getInputStream(new Resource(resource.getName()));
+      } catch (ResourceDoesNotExistException expected) {
+        // artifact is not hosted in the repository
+      }
+    }
+
+    assertEquals(
+        1,
+        requests.stream().filter(r -> r.contains("/register/org.example/central-artifact")).count());
+  }
+
+  @Test
+  public void testArtifactIsRegisteredOnceForAllFiles() throws Exception {
+    responses.put(
+        "PUT:https://example.com/artifact/register/com.example.deploy/deployed-artifact",
+        byteResponse(registerResponseContent().getBytes(StandardCharsets.UTF_8)));
+    for (String file : Arrays.asList("deployed-artifact-1.0.jar", "deployed-artifact-1.0.jar.sha1")) {
+      responses.put(
+          "PUT:https://example.com/artifact/hrn:here:artifact:::com.example.group:deployed-artifact:1.0/" + file,
+          new BasicHttpResponse(protocolVersion, 201, "Created"));
+    }
+    artifactWagon.connect(repository);
+
+    File source = temporaryFolder.newFile();
+    artifactWagon.put(source, "com.example.deploy/deployed-artifact/1.0/deployed-artifact-1.0.jar");
+    artifactWagon.put(source, "com.example.deploy/deployed-artifact/1.0/deployed-artifact-1.0.jar.sha1");
+
+    assertEquals(
+        1,
+        requests.stream().filter(r -> r.startsWith("PUT:") && r.contains("/register/")).count());
+  }
+
+  @Test
+  public void testArtifactIsRegisteredAgainWithOtherCredentials() throws Exception {
+    responses.put(
+        "PUT:https://example.com/artifact/register/com.example.deploy/shared-artifact",
+        byteResponse(registerResponseContent().getBytes(StandardCharsets.UTF_8)));
+    responses.put(
+        "PUT:https://example.com/artifact/hrn:here:artifact:::com.example.group:shared-artifact:1.0/shared-artifact-1.0.jar",
+        new BasicHttpResponse(protocolVersion, 201, "Created"));
+    File source = temporaryFolder.newFile();
+
+    artifactWagon.connect(repository);
+    artifactWagon.put(source, "com.example.deploy/shared-artifact/1.0/shared-artifact-1.0.jar");
+    artifactWagon.disconnect();
+    AuthenticationInfo otherCredentials = new AuthenticationInfo();
+    otherCredentials.setUserName("other-access-key-id");
+    otherCredentials.setPassword("other-access-key-secret");
+    artifactWagon.connect(repository, otherCredentials);
+    artifactWagon.put(source, "com.example.deploy/shared-artifact/1.0/shared-artifact-1.0.jar");
+
+    assertEquals(
+        2,
+        requests.stream().filter(r -> r.startsWith("PUT:") && r.contains("/register/")).count());
+  }
+
+  private String registerResponseContent() throws Exception {
+    RegisterResponse registerResponse =
+        new RegisterResponse(
+            "com.example.group",
+            "test-artifact",
+            "hrn:here:artifact:::com.example.group:test-artifact",
+            "hrn:here:artifact:::com.example.group",
+            true);
+    return new ObjectMapper().writeValueAsString(registerResponse);
+  }
+
   private HttpResponse byteResponse(byte[] response) {
     BasicHttpResponse httpResponse = new BasicHttpResponse(protocolVersion, 200, "Found");
     httpResponse.setEntity(new ByteArrayEntity(response, 0, response.length));
@@ -18,22 +18,32 @@
  */
 package com.here.platform.artifact.maven.wagon;
 
+import com.here.platform.artifact.maven.wagon.http.RateLimitGate;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Answers;
 
+import java.util.Date;
+
 import static com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy.RETRY_AFTER_HEADER;
+import static com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy.X_RATE_LIMIT_LIMIT_HEADER;
+import static com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy.X_RATE_LIMIT_REMAINING_HEADER;
 import static com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy.X_RATE_LIMIT_RESET_HEADER;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class XRateLimitServiceUnavailableRetryStrategyTest {
 
-  private ServiceUnavailableRetryStrategy strategy;
+  private XRateLimitServiceUnavailableRetryStrategy strategy;
+
+  private RateLimitGate rateLimitGate;
 
   private HttpResponse httpResponse;
 
@@ -43,7 +53,8 @@ public class XRateLimitServiceUnavailableRetryStrategyTest {
   public void setup() {
     httpResponse = mock(HttpResponse.class, Answers.RETURNS_DEEP_STUBS);
     httpContext = mock(HttpContext.class, Answers.RETURNS_DEEP_STUBS);
-    strategy = new XRateLimitServiceUnavailableRetryStrategy();
+    rateLimitGate = new RateLimitGate();
+    strategy = new XRateLimitServiceUnavailableRetryStrategy(rateLimitGate);
   }
 
   @Test
@@ -97,4 +108,113 @@ public class XRateLimitServiceUnavailableRetryStrategyTest {
     Assert.assertEquals(5000, strategy.getRetryInterval());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testRetryIntervalOfResponseIsUsedFromXRateLimitResetHeader() {
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(429);
+    when(httpResponse.getFirstHeader(X_RATE_LIMIT_RESET_HEADER).getValue()).thenReturn("99");
+    when(httpResponse.getFirstHeader(RETRY_AFTER_HEADER).getValue()).thenReturn("1");
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(true);
+    Assert.assertEquals(99000, strategy.getRetryInterval(httpResponse));
+  }
+
+  @Test
+  public void testRetryIntervalOfResponseIsUsedFromRetryAfter() {
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(429);
+    when(httpResponse.getFirstHeader(RETRY_AFTER_HEADER).getValue()).thenReturn("1");
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(false);
+    Assert.assertEquals(1000, strategy.getRetryInterval(httpResponse));
+  }
+
+  @Test
+  public void testDefaultRetryIntervalOfResponseWithoutValidHeader() {
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(429);
+    when(httpResponse.getFirstHeader(X_RATE_LIMIT_RESET_HEADER).getValue()).thenReturn("asd");
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(true);
+    Assert.assertEquals(5000, strategy.getRetryInterval(httpResponse));
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testRetriedResponseIsClearedWhenIntervalIsRead() {
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(429);
+    when(httpResponse.getFirstHeader(RETRY_AFTER_HEADER).getValue()).thenReturn("1");
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(false);
+    strategy.retryRequest(httpResponse, 1, httpContext);
+    Assert.assertEquals(1000, strategy.getRetryInterval());
+    Assert.assertEquals(5000, strategy.getRetryInterval());
+
+    strategy.retryRequest(httpResponse, 1, httpContext);
+    Assert.assertEquals(1000, strategy.getRetryInterval(httpResponse));
+    Assert.assertEquals(5000, strategy.getRetryInterval());
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testResponseWhichIsNotRetriedIsNotKept() {
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(429);
+    when(httpResponse.getFirstHeader(RETRY_AFTER_HEADER).getValue()).thenReturn("1");
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(false);
+    strategy.retryRequest(httpResponse, 1, httpContext);
+    Assert.assertFalse(strategy.retryRequest(httpResponse, 100, httpContext));
+    Assert.assertEquals(5000, strategy.getRetryInterval());
+  }
+
+  @Test
+  public void testRateLimitedResponsePausesHost() {
+    HttpContext context = new BasicHttpContext();
+    context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, new HttpHost("repo.example.com", 443, "https"));
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(429);
+    when(httpResponse.getFirstHeader(RETRY_AFTER_HEADER).getValue()).thenReturn("60");
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(false);
+    strategy.retryRequest(httpResponse, 1, context);
+    Assert.assertTrue(rateLimitGate.getDelay("repo.example.com") > 50000);
+    Assert.assertEquals(0, rateLimitGate.getDelay("other.example.com"));
+  }
+
+  @Test
+  public void testServerErrorDoesNotPauseHost() {
+    HttpContext context = new BasicHttpContext();
+    context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, new HttpHost("repo.example.com", 443, "https"));
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(500);
+    when(httpResponse.getFirstHeader(RETRY_AFTER_HEADER).getValue()).thenReturn("60");
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(false);
+    Assert.assertTrue(strategy.retryRequest(httpResponse, 1, context));
+    Assert.assertEquals(0, rateLimitGate.getDelay("repo.example.com"));
+  }
+
+  @Test
+  public void testRetryIntervalIsUsedFromRetryAfterHttpDate() {
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(429);
+    when(httpResponse.getFirstHeader(RETRY_AFTER_HEADER).getValue())
+        .thenReturn(DateUtils.formatDate(new Date(System.currentTimeMillis() + 30000)));
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(false);
+    long retryInterval = strategy.getRetryInterval(httpResponse);
+    Assert.assertTrue(retryInterval > 25000 && retryInterval <= 30000);
+  }
+
+  @Test
+  public void testRetryIntervalIsZeroForPastRetryAfterHttpDate() {
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(503);
+    when(httpResponse.getFirstHeader(RETRY_AFTER_HEADER).getValue()).thenReturn("Wed, 21 Oct 2015 07:28:00 GMT");
+    when(httpResponse.containsHeader(X_RATE_LIMIT_RESET_HEADER)).thenReturn(false);
+    Assert.assertEquals(0, strategy.getRetryInterval(httpResponse));
+  }
+
+  @Test
+  public void testLowRemainingQuotaThrottlesHost() {
+    HttpContext context = new BasicHttpContext();
+    context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, new HttpHost("repo.example.com", 443, "https"));
+    when(httpResponse.getStatusLine().getStatusCode()).thenReturn(200);
+    when(httpResponse.getFirstHeader(X_RATE_LIMIT_LIMIT_HEADER).getValue()).thenReturn("100");
+    when(httpResponse.getFirstHeader(X_RATE_LIMIT_REMAINING_HEADER).getValue()).thenReturn("50");
+    when(httpResponse.getFirstHeader(X_RATE_LIMIT_RESET_HEADER).getValue()).thenReturn("10");
+    Assert.assertFalse(strategy.retryRequest(httpResponse, 1, context));
+    Assert.assertFalse(rateLimitGate.isThrottled("repo.example.com"));
+
+    when(httpResponse.getFirstHeader(X_RATE_LIMIT_REMAINING_HEADER).getValue()).thenReturn("5");
+    strategy.retryRequest(httpResponse, 1, context);
+    Assert.assertTrue(rateLimitGate.isThrottled("repo.example.com"));
+    Assert.assertEquals(0, rateLimitGate.getDelay("repo.example.com"));
+  }
+
+}
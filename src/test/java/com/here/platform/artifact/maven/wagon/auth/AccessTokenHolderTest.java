@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class AccessTokenHolderTest {
+
+  private static final long EXPIRES_IN_SECONDS = 1000;
+
+  private final AtomicLong now = new AtomicLong(1_000_000);
+  private final AtomicInteger mints = new AtomicInteger();
+  private ScheduledExecutorService scheduler;
+  private AccessTokenHolder holder;
+
+  @Before
+  public void setup() {
+    scheduler = mock(ScheduledExecutorService.class);
+    holder = new AccessTokenHolder(
+        () -> AccessToken.of("token-" + mints.incrementAndGet(), EXPIRES_IN_SECONDS, now.get()), scheduler, now::get);
+  }
+
+  @Test
+  public void testTokenIsMintedOnce() {
+    assertEquals("token-1", holder.get());
+    assertEquals("token-1", holder.get());
+    assertEquals(1, mints.get());
+  }
+
+  @Test
+  public void testExpiredTokenIsMintedAgain() {
+    assertEquals("token-1", holder.get());
+    now.addAndGet(EXPIRES_IN_SECONDS * 1000);
+    assertEquals("token-2", holder.get());
+  }
+
+  @Test
+  public void testTokenIsRefreshedInBackground() {
+    assertEquals("token-1", holder.get());
+    Runnable refresh = captureScheduledRefresh(EXPIRES_IN_SECONDS * 800);
+
+    refresh.run();
+    assertEquals(2, mints.get());
+    assertEquals("token-2", holder.get());
+  }
+
+  @Test
+  public void testUnusedTokenIsNotRefreshedInBackground() {
+    assertEquals("token-1", holder.refresh(null));
+    Runnable refresh = captureScheduledRefresh(EXPIRES_IN_SECONDS * 800);
+
+    refresh.run();
+    assertEquals(1, mints.get());
+  }
+
+  @Test
+  public void testTokenWithoutExpiryIsNotRefreshed() {
+    holder = new AccessTokenHolder(() -> AccessToken.of("token", null, now.get()), scheduler, now::get);
+    assertEquals("token", holder.get());
+    now.addAndGet(Long.MAX_VALUE / 2);
+    assertEquals("token", holder.get());
+    verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void testRefreshOfReplacedTokenReturnsCurrentToken() {
+    assertEquals("token-1", holder.get());
+    assertEquals("token-2", holder.refresh("token-1"));
+    assertEquals("token-2", holder.refresh("token-1"));
+    assertEquals(2, mints.get());
+  }
+
+  @Test
+  public void testConcurrentRefreshesAreCoalesced() throws Exception {
+    CountDownLatch minting = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    holder = new AccessTokenHolder(() -> {
+      if (mints.incrementAndGet() == 2) {
+        minting.countDown();
+        await(release);
+      }
+      return AccessToken.of("token-" + mints.get(), EXPIRES_IN_SECONDS, now.get());
+    }, scheduler, now::get);
+    assertEquals("token-1", holder.get());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> holder.refresh("token-1"));
+      minting.await();
+      Future<String> second = executor.submit(() -> holder.refresh("token-1"));
+      Thread.sleep(50);
+      release.countDown();
+
+      assertEquals("token-2", first.get());
+      assertEquals("token-2", second.get());
+      assertEquals(2, mints.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Runnable captureScheduledRefresh(long delayMillis) {
+    ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(refresh.capture(), eq(delayMillis), eq(TimeUnit.MILLISECONDS));
+    return refresh.getValue();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
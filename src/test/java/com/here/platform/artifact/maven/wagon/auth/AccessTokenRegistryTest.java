@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class AccessTokenRegistryTest {
+
+  private static final String ENDPOINT_URL = "https://account.api.here.com/oauth2/token";
+
+  private final AtomicInteger mints = new AtomicInteger();
+  private final Supplier<AccessToken> minter =
+      () -> AccessToken.of("token-" + mints.incrementAndGet(), null, System.currentTimeMillis());
+
+  @Test
+  public void testSameCredentialsShareOneToken() {
+    AccessTokenRegistry registry = new AccessTokenRegistry();
+    AccessTokenHolder first = registry.getHolder(ENDPOINT_URL, "key-id", "secret", null, minter);
+    AccessTokenHolder second = registry.getHolder(ENDPOINT_URL, "key-id", "secret", null, minter);
+
+    assertSame(first, second);
+    assertEquals("token-1", first.get());
+    assertEquals("token-1", second.get());
+    assertEquals(1, mints.get());
+  }
+
+  @Test
+  public void testDifferentCredentialsUseSeparateTokens() {
+    AccessTokenRegistry registry = new AccessTokenRegistry();
+    AccessTokenHolder holder = registry.getHolder(ENDPOINT_URL, "key-id", "secret", null, minter);
+
+    assertNotSame(holder, registry.getHolder(ENDPOINT_URL, "key-id", "other-secret", null, minter));
+    assertNotSame(holder, registry.getHolder(ENDPOINT_URL, "other-key-id", "secret", null, minter));
+    assertNotSame(holder, registry.getHolder("https://stg.account.api.here.com/oauth2/token", "key-id", "secret", null, minter));
+    assertEquals(4, registry.size());
+  }
+
+  @Test
+  public void testProxySettingsUseSeparateTokens() {
+    AccessTokenRegistry registry = new AccessTokenRegistry();
+    AccessTokenHolder direct = registry.getHolder(ENDPOINT_URL, "key-id", "secret", "direct", minter);
+
+    assertNotSame(direct, registry.getHolder(ENDPOINT_URL, "key-id", "secret", "proxy.example.com:8080", minter));
+    assertSame(direct, registry.getHolder(ENDPOINT_URL, "key-id", "secret", "direct", minter));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedHolderIsDropped() {
+    AccessTokenRegistry registry = new AccessTokenRegistry(2);
+    AccessTokenHolder first = registry.getHolder(ENDPOINT_URL, "key-1", "secret", null, minter);
+    AccessTokenHolder second = registry.getHolder(ENDPOINT_URL, "key-2", "secret", null, minter);
+    assertSame(first, registry.getHolder(ENDPOINT_URL, "key-1", "secret", null, minter));
+
+    registry.getHolder(ENDPOINT_URL, "key-3", "secret", null, minter);
+    assertEquals(2, registry.size());
+    assertSame(first, registry.getHolder(ENDPOINT_URL, "key-1", "secret", null, minter));
+    assertNotSame(second, registry.getHolder(ENDPOINT_URL, "key-2", "secret", null, minter));
+  }
+
+  @Test
+  public void testKeyDoesNotContainSecret() {
+    assertFalse(AccessTokenRegistry.key(ENDPOINT_URL, "key-id", "secret", null).contains("secret"));
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import org.apache.http.Header;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BearerAuthorizationInterceptorTest {
+
+  private final AtomicInteger mints = new AtomicInteger();
+  private final AccessTokenHolder holder =
+      new AccessTokenHolder(() -> AccessToken.of("token-" + mints.incrementAndGet(), null, System.currentTimeMillis()));
+  private final BearerAuthorizationInterceptor interceptor = new BearerAuthorizationInterceptor(() -> holder);
+
+  @Test
+  public void testHeaderIsSetOnRequest() throws Exception {
+    HttpGet request = new HttpGet("https://example.com/artifact");
+    interceptor.process(request, null);
+    assertEquals("Bearer token-1", request.getFirstHeader("Authorization").getValue());
+    assertEquals(1, request.getHeaders("Authorization").length);
+  }
+
+  @Test
+  public void testHeaderIsReusedUntilTokenIsReplaced() {
+    Header header = interceptor.getHeader();
+    assertSame(header, interceptor.getHeader());
+
+    holder.refresh("token-1");
+    Header refreshed = interceptor.getHeader();
+    assertNotSame(header, refreshed);
+    assertEquals("Bearer token-2", refreshed.getValue());
+  }
+}
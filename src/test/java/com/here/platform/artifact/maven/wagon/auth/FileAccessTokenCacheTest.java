@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.cache.FileCache;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+public class FileAccessTokenCacheTest {
+
+  private static final String ENDPOINT_URL = "https://account.api.here.com/oauth2/token";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final AtomicInteger mints = new AtomicInteger();
+  private final Supplier<AccessToken> minter =
+      () -> AccessToken.of("token-" + mints.incrementAndGet(), 3600L, System.currentTimeMillis());
+
+  @Test
+  public void testTokenIsSharedBetweenProcesses() {
+    Path file = temporaryFolder.getRoot().toPath().resolve("cache/token.json");
+
+    assertEquals("token-1", newCache(file).withCache(ENDPOINT_URL, "key-id", minter).get().getValue());
+    assertEquals("token-1", newCache(file).withCache(ENDPOINT_URL, "key-id", minter).get().getValue());
+    assertEquals("token-2", newCache(file).withCache(ENDPOINT_URL, "other-key-id", minter).get().getValue());
+    assertEquals(2, mints.get());
+  }
+
+  @Test
+  public void testInvalidatedTokenIsMintedAgain() {
+    FileAccessTokenCache cache = newCache(temporaryFolder.getRoot().toPath().resolve("token.json"));
+    Supplier<AccessToken> cachedMinter = cache.withCache(ENDPOINT_URL, "key-id", minter);
+
+    assertEquals("token-1", cachedMinter.get().getValue());
+    cache.invalidate(ENDPOINT_URL, "key-id", "token-1");
+    assertEquals("token-2", cachedMinter.get().getValue());
+  }
+
+  @Test
+  public void testTokenReplacedByAnotherProcessIsKept() {
+    FileAccessTokenCache cache = newCache(temporaryFolder.getRoot().toPath().resolve("token.json"));
+    Supplier<AccessToken> cachedMinter = cache.withCache(ENDPOINT_URL, "key-id", minter);
+
+    assertEquals("token-1", cachedMinter.get().getValue());
+    cache.invalidate(ENDPOINT_URL, "key-id", "token-1");
+    assertEquals("token-2", cachedMinter.get().getValue());
+    // a late rejection of the first token doesn't remove the fresh one
+    cache.invalidate(ENDPOINT_URL, "key-id", "token-1");
+    assertEquals("token-2", cachedMinter.get().getValue());
+    assertEquals(2, mints.get());
+  }
+
+  @Test
+  public void testTokenWithoutExpiryIsNotCached() {
+    FileAccessTokenCache cache = newCache(temporaryFolder.getRoot().toPath().resolve("token.json"));
+    Supplier<AccessToken> cachedMinter =
+        cache.withCache(ENDPOINT_URL, "key-id", () -> AccessToken.of("token-" + mints.incrementAndGet(), null, 0));
+
+    assertEquals("token-1", cachedMinter.get().getValue());
+    assertEquals("token-2", cachedMinter.get().getValue());
+  }
+
+  @Test
+  public void testConcurrentProcessesMintOnce() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("token.json");
+    Supplier<AccessToken> slowMinter = () -> {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return minter.get();
+    };
+    List<String> tokens = new CopyOnWriteArrayList<>();
+    // every cache has its own channels to the files, like a cache of another process
+    Runnable process = () -> tokens.add(newCache(file).withCache(ENDPOINT_URL, "key-id", slowMinter).get().getValue());
+    Thread first = new Thread(process);
+    Thread second = new Thread(process);
+    first.start();
+    second.start();
+    first.join();
+    second.join();
+
+    assertEquals(1, mints.get());
+    assertEquals("token-1", tokens.get(0));
+    assertEquals("token-1", tokens.get(1));
+  }
+
+  @Test
+  public void testFileIsReadableByOwnerOnly() throws Exception {
+    assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    Path file = temporaryFolder.getRoot().toPath().resolve("token.json");
+    newCache(file).withCache(ENDPOINT_URL, "key-id", minter).get();
+
+    assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+  }
+
+  @Test
+  public void testDisabledCacheReturnsMinter() {
+    assertEquals(minter, new FileAccessTokenCache(null).withCache(ENDPOINT_URL, "key-id", minter));
+  }
+
+  private static FileAccessTokenCache newCache(Path file) {
+    return new FileAccessTokenCache(new FileCache<>(file, AccessToken.class, new ObjectMapper()));
+  }
+}
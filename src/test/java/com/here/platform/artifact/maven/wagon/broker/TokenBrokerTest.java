@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.broker;
+
+import com.here.platform.artifact.maven.wagon.auth.AccessToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class TokenBrokerTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final AtomicInteger brokerMints = new AtomicInteger();
+  private final AtomicInteger localMints = new AtomicInteger();
+  private final Supplier<AccessToken> localMinter =
+      () -> AccessToken.of("local-" + localMints.incrementAndGet(), 3600L, System.currentTimeMillis());
+
+  private Path socketPath;
+  private TokenBroker broker;
+
+  @Before
+  public void setup() throws Exception {
+    socketPath = temporaryFolder.getRoot().toPath().resolve("broker.sock");
+    broker = new TokenBroker(socketPath, properties -> {
+      if ("invalid".equals(properties.getProperty("here.access.key.secret"))) {
+        throw new IllegalStateException("invalid credentials");
+      }
+      return AccessToken.of("broker-" + brokerMints.incrementAndGet(), 3600L, System.currentTimeMillis());
+    });
+    broker.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    broker.close();
+  }
+
+  @Test
+  public void testTokenIsSharedByClients() {
+    assertEquals("broker-1", new TokenBrokerClient(socketPath).withBroker(credentials("secret"), localMinter).get().getValue());
+    assertEquals("broker-1", new TokenBrokerClient(socketPath).withBroker(credentials("secret"), localMinter).get().getValue());
+    assertEquals(1, brokerMints.get());
+    assertEquals(0, localMints.get());
+  }
+
+  @Test
+  public void testRejectedTokenIsReplaced() {
+    TokenBrokerClient client = new TokenBrokerClient(socketPath);
+    Supplier<AccessToken> minter = client.withBroker(credentials("secret"), localMinter);
+    assertEquals("broker-1", minter.get().getValue());
+
+    client.invalidate(credentials("secret"), "broker-1");
+    assertEquals("broker-2", minter.get().getValue());
+  }
+
+  @Test
+  public void testClientMintsIfBrokerFails() {
+    assertEquals("local-1", new TokenBrokerClient(socketPath).withBroker(credentials("invalid"), localMinter).get().getValue());
+  }
+
+  @Test
+  public void testClientMintsIfBrokerIsNotRunning() throws Exception {
+    broker.close();
+    assertEquals("local-1", new TokenBrokerClient(socketPath).withBroker(credentials("secret"), localMinter).get().getValue());
+  }
+
+  @Test
+  public void testSocketDirectoryIsPrivate() throws Exception {
+    Path privateSocket = temporaryFolder.getRoot().toPath().resolve("broker").resolve("broker.sock");
+    try (TokenBroker privateBroker = new TokenBroker(privateSocket, properties -> null)) {
+      privateBroker.start();
+      assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(privateSocket.getParent()));
+    }
+  }
+
+  @Test
+  public void testSharedSocketDirectoryIsRefused() throws Exception {
+    Path sharedDirectory = temporaryFolder.newFolder("shared").toPath();
+    Files.setPosixFilePermissions(sharedDirectory, PosixFilePermissions.fromString("rwxr-xr-x"));
+    try (TokenBroker sharedBroker = new TokenBroker(sharedDirectory.resolve("broker.sock"), properties -> null)) {
+      sharedBroker.start();
+      fail("IOException expected");
+    } catch (IOException expected) {
+      assertFalse(Files.exists(sharedDirectory.resolve("broker.sock")));
+    }
+  }
+
+  private static Properties credentials(String secret) {
+    Properties properties = new Properties();
+    properties.setProperty("here.token.endpoint.url", "https://account.api.here.com/oauth2/token");
+    properties.setProperty("here.access.key.id", "key-id");
+    properties.setProperty("here.access.key.secret", secret);
+    return properties;
+  }
+}
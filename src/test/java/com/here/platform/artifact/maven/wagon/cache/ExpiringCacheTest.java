@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.cache;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExpiringCacheTest {
+
+  private final AtomicLong now = new AtomicLong(1000);
+
+  @Test
+  public void testHitAndMissCounters() {
+    ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1), now::get);
+    assertNull(cache.get("key"));
+    cache.put("key", "value");
+    assertEquals("value", cache.get("key"));
+    assertEquals("value", cache.get("key"));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testEntryExpires() {
+    ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofSeconds(5), now::get);
+    cache.put("key", "value");
+    now.addAndGet(4999);
+    assertEquals("value", cache.get("key"));
+    now.addAndGet(1);
+    assertNull(cache.get("key"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() {
+    ExpiringCache<String, String> cache = new ExpiringCache<>(2, Duration.ofMinutes(1), now::get);
+    cache.put("first", "1");
+    cache.put("second", "2");
+    cache.get("first");
+    cache.put("third", "3");
+    assertEquals("1", cache.get("first"));
+    assertNull(cache.get("second"));
+    assertEquals("3", cache.get("third"));
+  }
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.model.RegisterResponse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FileCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final AtomicLong now = new AtomicLong(1000);
+
+  @Test
+  public void testValueIsSharedBetweenInstances() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("cache/register.json");
+    FileCache<RegisterResponse> writer = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    writer.put("group/artifact", registerResponse(), 1000);
+
+    FileCache<RegisterResponse> reader = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    assertEquals("hrn:here:artifact:::group", reader.get("group/artifact").getGroupHrnPrefix());
+    assertNull(reader.get("group/other"));
+  }
+
+  @Test
+  public void testExpiredEntriesAreIgnoredAndRemoved() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    cache.put("group/expired", registerResponse(), 10);
+    cache.put("group/artifact", registerResponse(), 1000);
+    now.addAndGet(10);
+    assertNull(cache.get("group/expired"));
+
+    cache.put("group/another", registerResponse(), 1000);
+    String content = new String(Files.readAllBytes(file));
+    assertEquals(-1, content.indexOf("group/expired"));
+  }
+
+  @Test
+  public void testCorruptedFileIsTreatedAsMiss() throws Exception {
+    Path file = temporaryFolder.newFile("register.json").toPath();
+    Files.write(file, "not json".getBytes());
+    FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    assertNull(cache.get("group/artifact"));
+
+    cache.put("group/artifact", registerResponse(), 1000);
+    assertEquals("hrn:here:artifact:::group", cache.get("group/artifact").getGroupHrnPrefix());
+  }
+
+  @Test
+  public void testConcurrentUpdatesAreNotLost() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      String key = "group/artifact-" + i;
+      FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+      threads.add(new Thread(() -> cache.put(key, registerResponse(), 1000)));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    FileCache<RegisterResponse> reader = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    for (int i = 0; i < 8; i++) {
+      assertNotNull(reader.get("group/artifact-" + i));
+    }
+  }
+
+  @Test
+  public void testConcurrentComputationsShareOneValue() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    List<String> values = new CopyOnWriteArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      String artifactId = "artifact-" + i;
+      FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+      threads.add(new Thread(() -> values.add(cache.computeIfAbsent("group/artifact",
+          () -> new RegisterResponse("group", artifactId, "hrn", "hrn", true), value -> 1000).getArtifactId())));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(8, values.size());
+    assertEquals(1, new HashSet<>(values).size());
+  }
+
+  @Test
+  public void testValueIsComputedOnce() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    AtomicInteger computations = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+      threads.add(new Thread(() -> cache.computeIfAbsent("group/artifact", () -> {
+        computations.incrementAndGet();
+        sleep(50);
+        return registerResponse();
+      }, value -> 1000)));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(1, computations.get());
+  }
+
+  @Test
+  public void testComputationWaitsForOtherProcess() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    FileCache<RegisterResponse> other = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    AtomicInteger computations = new AtomicInteger();
+    AtomicReference<RegisterResponse> result = new AtomicReference<>();
+    Thread thread;
+
+    // another process is computing the value, it holds the lock via its own channel
+    try (FileChannel channel = FileChannel.open(file.resolveSibling("register.json.compute.lock"),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      channel.lock();
+      thread = new Thread(() -> result.set(cache.computeIfAbsent("group/artifact", () -> {
+        computations.incrementAndGet();
+        return new RegisterResponse("group", "local", "hrn", "hrn", true);
+      }, value -> 1000)));
+      thread.start();
+      sleep(200);
+      other.put("group/artifact", registerResponse(), 1000);
+    }
+    thread.join();
+
+    assertEquals(0, computations.get());
+    assertEquals("artifact", result.get().getArtifactId());
+  }
+
+  @Test
+  public void testValueIsComputedLocallyAfterTimeout() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    FileCache<RegisterResponse> cache =
+        new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get, 100);
+
+    try (FileChannel channel = FileChannel.open(file.resolveSibling("register.json.compute.lock"),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      channel.lock();
+      RegisterResponse value = cache.computeIfAbsent("group/artifact", this::registerResponse, v -> 1000);
+      assertEquals("artifact", value.getArtifactId());
+    }
+    assertNotNull(cache.get("group/artifact"));
+  }
+
+  @Test
+  public void testComputationDoesNotHoldLock() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    FileCache<RegisterResponse> other = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+
+    RegisterResponse value = cache.computeIfAbsent("group/artifact", () -> {
+      // another process updates the file while the value is computed
+      other.put("group/other", registerResponse(), 1000);
+      return registerResponse();
+    }, v -> 1000);
+
+    assertEquals("artifact", value.getArtifactId());
+    assertNotNull(other.get("group/artifact"));
+    assertNotNull(cache.get("group/other"));
+  }
+
+  @Test
+  public void testDeferredValuesAreWrittenInBatches() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    FileCache<RegisterResponse> reader = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    for (int i = 1; i < FileCache.MAX_PENDING_ENTRIES; i++) {
+      cache.putDeferred("group/artifact-" + i, registerResponse(), 1000);
+    }
+    assertFalse(Files.exists(file));
+    assertNotNull(cache.get("group/artifact-1"));
+
+    cache.putDeferred("group/artifact-" + FileCache.MAX_PENDING_ENTRIES, registerResponse(), 1000);
+    assertNotNull(reader.get("group/artifact-1"));
+    assertNotNull(reader.get("group/artifact-" + FileCache.MAX_PENDING_ENTRIES));
+
+    cache.putDeferred("group/flushed", registerResponse(), 1000);
+    assertNull(reader.get("group/flushed"));
+    cache.flush();
+    assertNotNull(reader.get("group/flushed"));
+  }
+
+  @Test
+  public void testEntriesExpiringFirstAreDroppedAboveMaxEntries() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    FileCache<RegisterResponse> cache =
+        new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get, 2, 1000);
+    cache.put("group/first", registerResponse(), 1000);
+    cache.put("group/second", registerResponse(), 2000);
+    cache.put("group/third", registerResponse(), 3000);
+
+    FileCache<RegisterResponse> reader = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    assertNull(reader.get("group/first"));
+    assertNotNull(reader.get("group/second"));
+    assertNotNull(reader.get("group/third"));
+  }
+
+  @Test
+  public void testConditionalRemoveKeepsOtherValue() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("register.json");
+    FileCache<RegisterResponse> cache = new FileCache<>(file, RegisterResponse.class, new ObjectMapper(), now::get);
+    cache.put("group/artifact", registerResponse(), 1000);
+
+    cache.remove("group/artifact", value -> "other".equals(value.getArtifactId()));
+    assertNotNull(cache.get("group/artifact"));
+    cache.remove("group/artifact", value -> "artifact".equals(value.getArtifactId()));
+    assertNull(cache.get("group/artifact"));
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private RegisterResponse registerResponse() {
+    return new RegisterResponse("group", "artifact", "hrn:here:artifact:::group:artifact", "hrn:here:artifact:::group", true);
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.http.AdaptiveConcurrencyLimiter.Outcome;
+import com.here.platform.artifact.maven.wagon.http.AdaptiveConcurrencyLimiter.Permit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+  private static final String HOST = "repo.example.com";
+
+  private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 64);
+
+  @Test
+  public void testRequestsOverLimitWait() throws Exception {
+    AdaptiveConcurrencyLimiter small = new AdaptiveConcurrencyLimiter(true, 2);
+    Permit first = small.acquire(HOST);
+    small.acquire(HOST);
+
+    CountDownLatch acquired = new CountDownLatch(1);
+    new Thread(() -> {
+      try {
+        small.acquire(HOST);
+        acquired.countDown();
+      } catch (Exception exp) {
+        throw new IllegalStateException(exp);
+      }
+    }).start();
+    assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+
+    first.release(Outcome.IGNORED);
+    assertTrue(acquired.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testLimitShrinksOncePerRoundTripOnDrops() throws Exception {
+    List<Permit> permits = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      permits.add(limiter.acquire(HOST));
+    }
+    for (Permit permit : permits) {
+      permit.release(Outcome.DROPPED);
+    }
+    assertEquals((int) (AdaptiveConcurrencyLimiter.INITIAL_LIMIT * AdaptiveConcurrencyLimiter.DROP_BACKOFF_RATIO),
+        limiter.getLimit(HOST));
+
+    limiter.acquire(HOST).release(Outcome.DROPPED);
+    assertEquals(5, limiter.getLimit(HOST));
+  }
+
+  @Test
+  public void testLimitGrowsWhileUsed() throws Exception {
+    for (int round = 0; round < 20; round++) {
+      List<Permit> permits = new ArrayList<>();
+      for (int i = 0; i < limiter.getLimit(HOST); i++) {
+        permits.add(limiter.acquire(HOST));
+      }
+      for (Permit permit : permits) {
+        permit.release(Outcome.SUCCESS);
+      }
+    }
+    assertTrue(limiter.getLimit(HOST) > AdaptiveConcurrencyLimiter.INITIAL_LIMIT);
+    assertTrue(limiter.getLimit(HOST) <= 64);
+  }
+
+  @Test
+  public void testLimitDoesNotGrowWhenUnused() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      limiter.acquire(HOST).release(Outcome.SUCCESS);
+    }
+    assertEquals(AdaptiveConcurrencyLimiter.INITIAL_LIMIT, limiter.getLimit(HOST));
+  }
+
+  @Test
+  public void testLatencySpikeShrinksLimit() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      limiter.acquire(HOST).release(Outcome.SUCCESS);
+    }
+    Permit slow = limiter.acquire(HOST);
+    Thread.sleep(200);
+    slow.release(Outcome.SUCCESS);
+    assertTrue(limiter.getLimit(HOST) < AdaptiveConcurrencyLimiter.INITIAL_LIMIT);
+  }
+
+  @Test
+  public void testDisabledLimiterDoesNotLimit() throws Exception {
+    AdaptiveConcurrencyLimiter disabled = new AdaptiveConcurrencyLimiter(false, 1);
+    disabled.acquire(HOST);
+    disabled.acquire(HOST).release(Outcome.DROPPED);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.http.CircuitBreaker.CircuitBreakerOpenException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+  private static final String HOST = "repo.example.com";
+
+  private final CircuitBreaker breaker = new CircuitBreaker(3, 200);
+
+  @Test
+  public void testCircuitOpensAfterConsecutiveFailures() throws Exception {
+    breaker.onFailure(HOST);
+    breaker.onFailure(HOST);
+    breaker.onSuccess(HOST);
+    breaker.onFailure(HOST);
+    breaker.onFailure(HOST);
+    breaker.acquire(HOST);
+    assertFalse(breaker.isOpen(HOST));
+
+    breaker.onFailure(HOST);
+    assertTrue(breaker.isOpen(HOST));
+    assertRejected(HOST);
+    breaker.acquire("other.example.com");
+  }
+
+  @Test
+  public void testIgnoredRequestReleasesProbe() throws Exception {
+    openCircuit();
+    Thread.sleep(250);
+
+    breaker.acquire(HOST);
+    breaker.onIgnored(HOST);
+    // the circuit stays half-open, the next request probes the host again
+    breaker.acquire(HOST);
+    assertRejected(HOST);
+  }
+
+  @Test
+  public void testProbeClosesCircuit() throws Exception {
+    openCircuit();
+    Thread.sleep(250);
+
+    breaker.acquire(HOST);
+    // only one probe at a time
+    assertRejected(HOST);
+    breaker.onSuccess(HOST);
+    breaker.acquire(HOST);
+    breaker.acquire(HOST);
+  }
+
+  @Test
+  public void testFailedProbeOpensCircuitAgain() throws Exception {
+    openCircuit();
+    Thread.sleep(250);
+
+    breaker.acquire(HOST);
+    breaker.onFailure(HOST);
+    assertTrue(breaker.isOpen(HOST));
+    assertRejected(HOST);
+  }
+
+  @Test
+  public void testDisabledBreakerNeverOpens() throws Exception {
+    CircuitBreaker disabled = new CircuitBreaker(0, 200);
+    for (int i = 0; i < 10; i++) {
+      disabled.onFailure(HOST);
+    }
+    disabled.acquire(HOST);
+  }
+
+  private void openCircuit() {
+    for (int i = 0; i < 3; i++) {
+      breaker.onFailure(HOST);
+    }
+  }
+
+  private void assertRejected(String host) {
+    try {
+      breaker.acquire(host);
+      fail("Request to " + host + " should have been rejected");
+    } catch (CircuitBreakerOpenException expected) {
+      // expected
+    }
+  }
+}
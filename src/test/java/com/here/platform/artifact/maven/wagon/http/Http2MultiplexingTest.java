@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.http2.ssl.H2ServerTlsStrategy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sends requests to an HTTP/2 stand-in server over TLS, where the protocol is negotiated via ALPN.
+ */
+public class Http2MultiplexingTest {
+
+  private static final char[] PASSWORD = "changeit".toCharArray();
+  private static final long RESPONSE_DELAY_MILLIS = 300;
+  private static final int CONCURRENT_REQUESTS = 8;
+
+  private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService responder = Executors.newSingleThreadScheduledExecutor();
+  private HttpAsyncServer server;
+  private int port;
+  private Http2RequestExecutor executor;
+
+  @Before
+  public void setup() throws Exception {
+    KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    try (InputStream in = getClass().getResourceAsStream("/localhost.p12")) {
+      keyStore.load(in, PASSWORD);
+    }
+
+    server = H2ServerBootstrap.bootstrap()
+        .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+        .setTlsStrategy(new H2ServerTlsStrategy(SSLContexts.custom().loadKeyMaterial(keyStore, PASSWORD).build()))
+        .register("/artifact", new DelayedHandler())
+        .create();
+    server.start();
+    ListenerEndpoint endpoint = server.listen(new InetSocketAddress("localhost", 0), URIScheme.HTTPS).get();
+    port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+
+    TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    trustManagerFactory.init(keyStore);
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+    HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .sslContext(sslContext)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    RateLimitGate rateLimitGate = new RateLimitGate();
+    executor = new Http2RequestExecutor(httpClient, Duration.ofSeconds(5),
+        new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(rateLimitGate), rateLimitGate,
+            new CircuitBreaker(5, 10000), new RetryBudget(0.1)));
+  }
+
+  @After
+  public void tearDown() {
+    server.close(CloseMode.IMMEDIATE);
+    responder.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentRequestsShareOneConnection() throws Exception {
+    // the first request opens the connection
+    assertEquals("HTTP/2.0", get());
+
+    ExecutorService threads = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+    try {
+      List<Callable<String>> requests = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+        requests.add(this::get);
+      }
+      long start = System.currentTimeMillis();
+      for (Future<String> protocol : threads.invokeAll(requests)) {
+        assertEquals("HTTP/2.0", protocol.get());
+      }
+      // the responses are delayed, sequential requests would take CONCURRENT_REQUESTS times as long
+      assertTrue(System.currentTimeMillis() - start < RESPONSE_DELAY_MILLIS * CONCURRENT_REQUESTS / 2);
+    } finally {
+      threads.shutdown();
+    }
+
+    Set<Integer> connections = new HashSet<>(clientPorts);
+    assertEquals(CONCURRENT_REQUESTS + 1, clientPorts.size());
+    assertEquals(1, connections.size());
+  }
+
+  private String get() throws Exception {
+    try (CloseableHttpResponse response = executor.apply(new HttpGet("https://localhost:" + port + "/artifact"))) {
+      assertEquals(200, response.getStatusLine().getStatusCode());
+      assertEquals("content", EntityUtils.toString(response.getEntity()));
+      return response.getStatusLine().getProtocolVersion().toString();
+    }
+  }
+
+  private final class DelayedHandler implements AsyncServerRequestHandler<Message<HttpRequest, String>> {
+
+    @Override
+    public AsyncRequestConsumer<Message<HttpRequest, String>> prepare(
+        HttpRequest request, EntityDetails entityDetails, HttpContext context) {
+      return new BasicRequestConsumer<>(new StringAsyncEntityConsumer());
+    }
+
+    @Override
+    public void handle(Message<HttpRequest, String> message, ResponseTrigger responseTrigger, HttpContext context) {
+      InetSocketAddress client =
+          (InetSocketAddress) HttpCoreContext.adapt(context).getEndpointDetails().getRemoteAddress();
+      clientPorts.add(client.getPort());
+      responder.schedule(() -> {
+        try {
+          responseTrigger.submitResponse(AsyncResponseBuilder.create(200).setEntity("content").build(), context);
+        } catch (Exception exp) {
+          throw new IllegalStateException(exp);
+        }
+      }, RESPONSE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+}
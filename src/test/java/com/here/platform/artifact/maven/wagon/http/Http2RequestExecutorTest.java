@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The stand-in server of the JDK speaks HTTP/1.1, the JDK client falls back to it when HTTP/2 is not offered.
+ */
+public class Http2RequestExecutorTest {
+
+  private HttpServer server;
+  private Http2RequestExecutor executor;
+  private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+  private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+  private final AtomicInteger rateLimitedRequests = new AtomicInteger();
+  private final RateLimitGate rateLimitGate = new RateLimitGate();
+
+  @Before
+  public void setup() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/artifact", exchange -> {
+      acceptEncodings.add(String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")));
+      exchange.getResponseHeaders().add("X-Artifact", "found");
+      respond(exchange, 200, "content of " + exchange.getRequestHeaders().getFirst("Authorization"));
+    });
+    server.createContext("/upload", exchange -> {
+      requestBodies.add(IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8));
+      respond(exchange, 201, "created");
+    });
+    server.createContext("/rate-limited", exchange -> {
+      if (rateLimitedRequests.incrementAndGet() == 1) {
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        respond(exchange, 429, "");
+      } else {
+        respond(exchange, 200, "ok");
+      }
+    });
+    server.start();
+    executor = new Http2RequestExecutor(
+        Http2RequestExecutor.getHttpClient(null, Duration.ofSeconds(5)),
+        Duration.ofSeconds(5),
+        new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(rateLimitGate), rateLimitGate,
+            new CircuitBreaker(5, 10000), new RetryBudget(0.1)));
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testGet() throws Exception {
+    HttpGet request = new HttpGet(url("/artifact"));
+    request.setHeader("Authorization", "Bearer token");
+    request.setHeader("Accept-Encoding", "gzip");
+    try (CloseableHttpResponse response = executor.apply(request)) {
+      assertEquals(200, response.getStatusLine().getStatusCode());
+      assertEquals("found", response.getFirstHeader("X-Artifact").getValue());
+      assertEquals("content of Bearer token", EntityUtils.toString(response.getEntity()));
+    }
+    assertEquals("null", acceptEncodings.get(0));
+  }
+
+  @Test
+  public void testPutStreamsEntity() throws Exception {
+    HttpPut sized = new HttpPut(url("/upload"));
+    sized.setEntity(new ByteArrayEntity("sized".getBytes(StandardCharsets.UTF_8)));
+    HttpPut streamed = new HttpPut(url("/upload"));
+    streamed.setEntity(new InputStreamEntity(new ByteArrayInputStream("streamed".getBytes(StandardCharsets.UTF_8))));
+
+    try (CloseableHttpResponse response = executor.apply(sized)) {
+      assertEquals(201, response.getStatusLine().getStatusCode());
+    }
+    try (CloseableHttpResponse response = executor.apply(streamed)) {
+      assertEquals(201, response.getStatusLine().getStatusCode());
+    }
+    assertEquals("sized", requestBodies.get(0));
+    assertEquals("streamed", requestBodies.get(1));
+  }
+
+  @Test
+  public void testRateLimitedRequestIsRetried() throws Exception {
+    long start = System.currentTimeMillis();
+    try (CloseableHttpResponse response = executor.apply(new HttpGet(url("/rate-limited")))) {
+      assertEquals(200, response.getStatusLine().getStatusCode());
+      assertEquals("ok", EntityUtils.toString(response.getEntity()));
+    }
+    assertEquals(2, rateLimitedRequests.get());
+    assertTrue(System.currentTimeMillis() - start >= 1000);
+  }
+
+  @Test
+  public void testClientIsSharedPerProxy() {
+    assertEquals(
+        Http2RequestExecutor.getHttpClient(null, Duration.ofSeconds(5)),
+        Http2RequestExecutor.getHttpClient(null, Duration.ofSeconds(1)));
+    assertEquals(HttpClient.Version.HTTP_2, Http2RequestExecutor.getHttpClient(null, Duration.ofSeconds(5)).version());
+  }
+
+  @Test
+  public void testClientIsKeyedByProxyPassword() {
+    ProxyInfo proxyInfo = new ProxyInfo();
+    proxyInfo.setHost("password.proxy.example.com");
+    proxyInfo.setPort(8080);
+    proxyInfo.setUserName("user");
+    proxyInfo.setPassword("first");
+    HttpClient first = Http2RequestExecutor.getHttpClient(proxyInfo, Duration.ofSeconds(5));
+    proxyInfo.setPassword("second");
+
+    assertNotSame(first, Http2RequestExecutor.getHttpClient(proxyInfo, Duration.ofSeconds(5)));
+  }
+
+  @Test
+  public void testZeroTimeoutsMeanNoTimeout() throws Exception {
+    ProxyInfo proxyInfo = new ProxyInfo();
+    proxyInfo.setHost("timeout.proxy.example.com");
+    proxyInfo.setPort(8080);
+    proxyInfo.setNonProxyHosts("localhost");
+    HttpClient httpClient = Http2RequestExecutor.getHttpClient(proxyInfo, Duration.ZERO);
+    assertFalse(httpClient.connectTimeout().isPresent());
+
+    Http2RequestExecutor noTimeoutExecutor = new Http2RequestExecutor(httpClient, Duration.ZERO,
+        new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(rateLimitGate), rateLimitGate,
+            new CircuitBreaker(5, 10000), new RetryBudget(0.1)));
+    try (CloseableHttpResponse response = noTimeoutExecutor.apply(new HttpGet(url("/artifact")))) {
+      assertEquals(200, response.getStatusLine().getStatusCode());
+    }
+  }
+
+  @Test
+  public void testNonProxyHostsAreConnectedDirectly() {
+    ProxyInfo proxyInfo = new ProxyInfo();
+    proxyInfo.setHost("proxy.example.com");
+    proxyInfo.setPort(8080);
+    proxyInfo.setNonProxyHosts("*.internal|localhost");
+    ProxySelector proxySelector = Http2RequestExecutor.proxySelector(proxyInfo);
+
+    assertEquals(Collections.singletonList(Proxy.NO_PROXY), proxySelector.select(URI.create("https://repo.internal/x")));
+    assertEquals(Collections.singletonList(Proxy.NO_PROXY), proxySelector.select(URI.create("http://localhost:8080/x")));
+    List<Proxy> proxies = proxySelector.select(URI.create("https://repo.example.com/x"));
+    assertEquals(1, proxies.size());
+    assertEquals(Proxy.Type.HTTP, proxies.get(0).type());
+    assertEquals(8080, ((InetSocketAddress) proxies.get(0).address()).getPort());
+  }
+
+  @Test
+  public void testClosingBodyEndsWriter() throws Exception {
+    CountDownLatch writerDone = new CountDownLatch(1);
+    // not repeatable and more than the pipe buffers, the writer blocks until the body is read or closed
+    InputStreamEntity entity = new InputStreamEntity(new ByteArrayInputStream(new byte[1024 * 1024])) {
+      @Override
+      public void writeTo(OutputStream outStream) throws IOException {
+        try {
+          super.writeTo(outStream);
+        } finally {
+          writerDone.countDown();
+        }
+      }
+    };
+
+    Http2RequestExecutor.PipedBody body = new Http2RequestExecutor.PipedBody(entity);
+    body.get();
+    try {
+      body.get();
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException expected) {
+      // the entity can't be written twice
+    }
+    body.close();
+    assertTrue(writerDone.await(5, TimeUnit.SECONDS));
+  }
+
+  private String url(String path) {
+    return "http://localhost:" + server.getAddress().getPort() + path;
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimitGateTest {
+
+  private final RateLimitGate gate = new RateLimitGate();
+
+  @Test
+  public void testPauseIsPerHost() {
+    gate.pause("repo.example.com", 60000);
+    assertTrue(gate.getDelay("REPO.example.com") > 50000);
+    assertEquals(0, gate.getDelay("other.example.com"));
+  }
+
+  @Test
+  public void testPauseKeepsLatestReset() {
+    gate.pause("repo.example.com", 60000);
+    gate.pause("repo.example.com", 1000);
+    assertTrue(gate.getDelay("repo.example.com") > 50000);
+  }
+
+  @Test
+  public void testAwaitBlocksAllThreadsUntilReset() throws Exception {
+    gate.pause("repo.example.com", 300);
+    CountDownLatch resumed = new CountDownLatch(2);
+    long start = System.nanoTime();
+    for (int i = 0; i < 2; i++) {
+      new Thread(() -> {
+        try {
+          gate.await("repo.example.com");
+          resumed.countDown();
+        } catch (Exception exp) {
+          throw new IllegalStateException(exp);
+        }
+      }).start();
+    }
+    assertFalse(resumed.await(100, TimeUnit.MILLISECONDS));
+    assertTrue(resumed.await(5, TimeUnit.SECONDS));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 290);
+    assertEquals(0, gate.getDelay("repo.example.com"));
+  }
+
+  @Test
+  public void testJitterExtendsWait() {
+    for (int i = 0; i < 100; i++) {
+      long wait = RateLimitGate.withJitter(1000);
+      assertTrue(wait >= 1000 && wait <= 1000 + 1000 * RateLimitGate.JITTER_RATIO + 1);
+    }
+    assertEquals(0, RateLimitGate.withJitter(0));
+  }
+
+  @Test
+  public void testLowQuotaPacesRequests() throws Exception {
+    // 5 requests left for the next 500 ms, one request every 100 ms
+    gate.updateQuota("repo.example.com", 100, 5, 500);
+    assertTrue(gate.isThrottled("repo.example.com"));
+    long start = System.nanoTime();
+    for (int i = 0; i < 4; i++) {
+      gate.await("repo.example.com");
+    }
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 290);
+
+    gate.updateQuota("repo.example.com", 100, 100, 500);
+    assertFalse(gate.isThrottled("repo.example.com"));
+  }
+
+  @Test
+  public void testPacingEndsAtDeadline() throws Exception {
+    // one request every 10 seconds
+    gate.updateQuota("repo.example.com", 100, 1, 10000);
+    gate.await("repo.example.com");
+    long start = System.nanoTime();
+    TransferDeadline.Scope deadline = TransferDeadline.start(1000);
+    try {
+      gate.await("repo.example.com");
+      fail("DeadlineExceededException expected");
+    } catch (TransferDeadline.DeadlineExceededException expected) {
+      // expected
+    } finally {
+      deadline.end();
+    }
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+  }
+
+  @Test
+  public void testExhaustedQuotaPausesUntilReset() {
+    gate.updateQuota("repo.example.com", 100, 0, 60000);
+    assertTrue(gate.getDelay("repo.example.com") > 50000);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.DefaultServiceUnavailableRetryStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.execchain.ClientExecChain;
+import org.apache.http.impl.execchain.RetryExec;
+import org.apache.http.impl.execchain.ServiceUnavailableRetryExec;
+import org.codehaus.plexus.util.ReflectionUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Sends requests through a client whose chain has its own retry executors, which must not retry on their own.
+ */
+public class RateLimitRetryExecTest {
+
+  private static final String UNAVAILABLE = "HTTP/1.1 503 Service Unavailable\r\n"
+      + "Retry-After: 0\r\nContent-Length: 0\r\nConnection: close\r\n\r\n";
+
+  private final AtomicInteger connections = new AtomicInteger();
+  private ServerSocket serverSocket;
+  private CloseableHttpClient httpClient;
+
+  @Before
+  public void setup() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    httpClient = HttpClientBuilder.create()
+        .setServiceUnavailableRetryStrategy(new DefaultServiceUnavailableRetryStrategy(3, 1))
+        .setRetryHandler(new DefaultHttpRequestRetryHandler(3, true))
+        .build();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    serverSocket.close();
+    httpClient.close();
+  }
+
+  @Test
+  public void testServiceUnavailableIsSentOncePerIteration() throws Exception {
+    startServer(UNAVAILABLE);
+    RateLimitGate gate = new RateLimitGate();
+    RateLimitRetryExec.install(httpClient, new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate,
+        new CircuitBreaker(100, 60000), new RetryBudget(-1)));
+
+    try (CloseableHttpResponse response = httpClient.execute(new HttpGet(getUrl()))) {
+      assertEquals(503, response.getStatusLine().getStatusCode());
+    }
+    // the first attempt and the 5 retries of the strategy
+    assertEquals(6, connections.get());
+  }
+
+  @Test
+  public void testIoErrorIsSentOncePerIteration() throws Exception {
+    startServer(null);
+    RateLimitGate gate = new RateLimitGate();
+    RateLimitRetryExec.install(httpClient, new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate,
+        new CircuitBreaker(100, 60000), new RetryBudget(-1), 1));
+
+    try {
+      httpClient.execute(new HttpGet(getUrl())).close();
+      fail("NoHttpResponseException expected");
+    } catch (NoHttpResponseException expected) {
+      // the server closed the connection without a response
+    }
+    assertEquals(2, connections.get());
+  }
+
+  @Test
+  public void testInstallWrapsChainOnce() throws Exception {
+    RetryLoop retryLoop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy());
+    RateLimitRetryExec.install(httpClient, retryLoop);
+    Object execChain = ReflectionUtils.getValueIncludingSuperclasses("execChain", httpClient);
+    RateLimitRetryExec.install(httpClient, retryLoop);
+    assertSame(execChain, ReflectionUtils.getValueIncludingSuperclasses("execChain", httpClient));
+  }
+
+  @Test
+  public void testRetryExecutorsAreUnlinked() throws Exception {
+    RateLimitRetryExec.install(httpClient, new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy()));
+
+    Object execChain = ReflectionUtils.getValueIncludingSuperclasses("execChain", httpClient);
+    int length = 0;
+    while (execChain instanceof ClientExecChain) {
+      assertFalse(execChain instanceof RetryExec);
+      assertFalse(execChain instanceof ServiceUnavailableRetryExec);
+      length++;
+      execChain = ReflectionUtils.getFieldByNameIncludingSuperclasses("requestExecutor", execChain.getClass()) == null
+          ? null : ReflectionUtils.getValueIncludingSuperclasses("requestExecutor", execChain);
+    }
+    // the retry loop, redirects, protocol and main executors
+    assertEquals(4, length);
+  }
+
+  private String getUrl() {
+    return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/artifact";
+  }
+
+  /**
+   * @param response the response to every request or {@code null} to close the connections without a response
+   */
+  private void startServer(String response) {
+    Thread server = new Thread(() -> {
+      while (!serverSocket.isClosed()) {
+        try (Socket socket = serverSocket.accept()) {
+          connections.incrementAndGet();
+          BufferedReader reader =
+              new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+          String line;
+          do {
+            line = reader.readLine();
+          } while (line != null && !line.isEmpty());
+          if (response != null) {
+            OutputStream out = socket.getOutputStream();
+            out.write(response.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+          }
+        } catch (IOException exp) {
+          // the server socket is closed
+        }
+      }
+    });
+    server.setDaemon(true);
+    server.start();
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * The stand-in server drops the connection after sending a part of the artifact.
+ */
+public class ResumableEntityTest {
+
+  private static final byte[] ARTIFACT = new byte[256 * 1024];
+  private static final int DROP_AFTER = 100 * 1000;
+
+  static {
+    new Random(42).nextBytes(ARTIFACT);
+  }
+
+  private HttpServer server;
+  private CloseableHttpClient httpClient;
+  private volatile String etag = "\"v1\"";
+  private final AtomicInteger drops = new AtomicInteger();
+  private final List<String> ranges = new CopyOnWriteArrayList<>();
+  private final List<String> ifRanges = new CopyOnWriteArrayList<>();
+
+  @Before
+  public void setup() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/artifact.jar", this::handle);
+    server.start();
+    httpClient = HttpClients.createDefault();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    httpClient.close();
+    server.stop(0);
+  }
+
+  @Test
+  public void testResumesDownloadAfterDroppedConnections() throws Exception {
+    drops.set(2);
+    byte[] content = download();
+
+    assertArrayEquals(ARTIFACT, content);
+    assertEquals(Arrays.asList("bytes=" + DROP_AFTER + "-", "bytes=" + 2 * DROP_AFTER + "-"), ranges);
+    assertEquals(Arrays.asList("\"v1\"", "\"v1\""), ifRanges);
+  }
+
+  @Test
+  public void testDoesNotResumeChangedArtifact() throws Exception {
+    drops.set(1);
+    try (CloseableHttpResponse response = get()) {
+      etag = "\"v2\"";
+      try (InputStream content = response.getEntity().getContent()) {
+        IOUtils.toByteArray(content);
+        fail("IOException expected");
+      } catch (IOException expected) {
+        // expected
+      }
+    }
+    assertEquals(Arrays.asList("bytes=" + DROP_AFTER + "-"), ranges);
+  }
+
+  @Test
+  public void testDownloadIsNotResumedWithoutValidator() throws Exception {
+    etag = null;
+    drops.set(1);
+    try (CloseableHttpResponse response = get()) {
+      IOUtils.toByteArray(response.getEntity().getContent());
+      fail("IOException expected");
+    } catch (IOException expected) {
+      // expected
+    }
+    assertEquals(0, ranges.size());
+  }
+
+  private byte[] download() throws Exception {
+    try (CloseableHttpResponse response = get(); InputStream content = response.getEntity().getContent()) {
+      return IOUtils.toByteArray(content);
+    }
+  }
+
+  private CloseableHttpResponse get() throws Exception {
+    HttpGet request = new HttpGet("http://localhost:" + server.getAddress().getPort() + "/artifact.jar");
+    CloseableHttpResponse response = httpClient.execute(request);
+    assertEquals(200, response.getStatusLine().getStatusCode());
+    ResumableEntity.makeResumable(request, response, httpClient::execute);
+    return response;
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    String range = exchange.getRequestHeaders().getFirst("Range");
+    String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+    int from = 0;
+    if (range != null) {
+      ranges.add(range);
+      ifRanges.add(ifRange);
+      if (ifRange != null && ifRange.equals(etag)) {
+        from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+      }
+    }
+    if (etag != null) {
+      exchange.getResponseHeaders().add("ETag", etag);
+    }
+    if (from > 0) {
+      exchange.getResponseHeaders().add("Content-Range",
+          "bytes " + from + "-" + (ARTIFACT.length - 1) + "/" + ARTIFACT.length);
+    }
+    exchange.sendResponseHeaders(from > 0 ? 206 : 200, ARTIFACT.length - from);
+    OutputStream body = exchange.getResponseBody();
+    if (drops.getAndDecrement() > 0) {
+      body.write(ARTIFACT, from, DROP_AFTER);
+      body.flush();
+      // closing the exchange before the whole body is sent drops the connection
+      exchange.close();
+      return;
+    }
+    body.write(ARTIFACT, from, ARTIFACT.length - from);
+    exchange.close();
+  }
+}
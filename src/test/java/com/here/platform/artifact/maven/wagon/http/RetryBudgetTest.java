@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBudgetTest {
+
+  @Test
+  public void testRetriesAreLimitedToRatioOfRequests() {
+    RetryBudget budget = new RetryBudget(0.1);
+    for (int i = 0; i < RetryBudget.RESERVE; i++) {
+      assertTrue(budget.tryRetry());
+    }
+    assertFalse(budget.tryRetry());
+
+    for (int i = 0; i < 10; i++) {
+      budget.onRequest();
+    }
+    assertTrue(budget.tryRetry());
+    assertFalse(budget.tryRetry());
+  }
+
+  @Test
+  public void testBalanceIsCapped() {
+    RetryBudget budget = new RetryBudget(1);
+    for (int i = 0; i < 1000; i++) {
+      budget.onRequest();
+    }
+    for (int i = 0; i < RetryBudget.MAX_BALANCE; i++) {
+      assertTrue(budget.tryRetry());
+    }
+    assertFalse(budget.tryRetry());
+  }
+
+  @Test
+  public void testNegativeRatioDisablesBudget() {
+    RetryBudget budget = new RetryBudget(-1);
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(budget.tryRetry());
+    }
+  }
+
+  @Test
+  public void testInvalidRatioFallsBackToDefault() {
+    System.setProperty("hereRetryBudgetRatio", "ten percent");
+    try {
+      assertEquals(0.1, RetryBudget.getRatio(), 0);
+    } finally {
+      System.clearProperty("hereRetryBudgetRatio");
+    }
+  }
+}
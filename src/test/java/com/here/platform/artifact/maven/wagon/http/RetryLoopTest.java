@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy;
+import org.apache.http.HttpVersion;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy.RETRY_AFTER_HEADER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryLoopTest {
+
+  private static final String HOST = "repo.example.com";
+
+  private final RateLimitGate gate = new RateLimitGate();
+  private final CircuitBreaker breaker = new CircuitBreaker(3, 60000);
+
+  @Test
+  public void testRetriesUntilSuccess() throws Exception {
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, breaker, new RetryBudget(0.1));
+    AtomicInteger attempts = new AtomicInteger();
+    CloseableHttpResponse response = loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(),
+        () -> response(attempts.incrementAndGet() < 3 ? 503 : 200));
+    assertEquals(200, response.getStatusLine().getStatusCode());
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  public void testRetryBudgetLimitsRetries() throws Exception {
+    RetryBudget budget = new RetryBudget(0.1);
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate,
+        new CircuitBreaker(0, 0), budget);
+    AtomicInteger attempts = new AtomicInteger();
+    for (int i = 0; i < 5; i++) {
+      loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> {
+        attempts.incrementAndGet();
+        return response(429);
+      });
+    }
+    // the reserve plus a tenth of the requests, instead of 5 retries per request
+    assertEquals(5 + (int) (RetryBudget.RESERVE + 5 * 0.1), attempts.get());
+  }
+
+  @Test
+  public void testOpenCircuitFailsFast() throws Exception {
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, breaker,
+        new RetryBudget(0.1), 0);
+    AtomicInteger attempts = new AtomicInteger();
+    try {
+      loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> {
+        attempts.incrementAndGet();
+        throw new IOException("Connection reset");
+      });
+      fail("IOException expected");
+    } catch (IOException expected) {
+      // expected
+    }
+    breaker.onFailure(HOST);
+    breaker.onFailure(HOST);
+    assertTrue(breaker.isOpen(HOST));
+
+    long start = System.currentTimeMillis();
+    try {
+      loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> response(200));
+      fail("CircuitBreakerOpenException expected");
+    } catch (CircuitBreaker.CircuitBreakerOpenException expected) {
+      // expected
+    }
+    assertTrue(System.currentTimeMillis() - start < 1000);
+    assertEquals(1, attempts.get());
+  }
+
+  @Test
+  public void testThrottledResponsesDontOpenCircuit() throws Exception {
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, breaker,
+        new RetryBudget(-1), 0);
+    AtomicInteger attempts = new AtomicInteger();
+    CloseableHttpResponse response = loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(),
+        () -> response(attempts.incrementAndGet() <= 4 ? 503 : 200));
+    assertEquals(200, response.getStatusLine().getStatusCode());
+    assertEquals(5, attempts.get());
+    assertFalse(breaker.isOpen(HOST));
+  }
+
+  @Test
+  public void testPoolTimeoutDoesNotOpenCircuit() throws Exception {
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, breaker,
+        new RetryBudget(-1), 0);
+    for (int i = 0; i < 3; i++) {
+      try {
+        loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> {
+          throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+        });
+        fail("ConnectionPoolTimeoutException expected");
+      } catch (ConnectionPoolTimeoutException expected) {
+        // expected
+      }
+    }
+    assertFalse(breaker.isOpen(HOST));
+  }
+
+  @Test
+  public void testPermitIsNotHeldBetweenAttempts() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 1);
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, new CircuitBreaker(0, 0),
+        new RetryBudget(-1), limiter, 0);
+    AtomicInteger attempts = new AtomicInteger();
+    Thread retrying = new Thread(() -> {
+      try {
+        loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> {
+          TestResponse response = new TestResponse(attempts.incrementAndGet() == 1 ? 500 : 200);
+          response.addHeader(RETRY_AFTER_HEADER, "1");
+          return response;
+        });
+      } catch (Exception exp) {
+        throw new IllegalStateException(exp);
+      }
+    });
+    retrying.start();
+    while (attempts.get() == 0) {
+      Thread.sleep(10);
+    }
+
+    // sent while the other request waits for its retry
+    long start = System.currentTimeMillis();
+    loop.execute("other." + HOST, new HttpGet("https://other." + HOST), new BasicHttpContext(), () -> response(200));
+    loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> response(200));
+    assertTrue(System.currentTimeMillis() - start < 500);
+    retrying.join();
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  public void testConnectFailureDoesNotShrinkLimit() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 64);
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, new CircuitBreaker(0, 0),
+        new RetryBudget(-1), limiter, 0);
+    int initialLimit = limiter.getLimit(HOST);
+    try {
+      loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> {
+        throw new ConnectException("Connection refused");
+      });
+      fail("ConnectException expected");
+    } catch (ConnectException expected) {
+      // expected
+    }
+    assertEquals(initialLimit, limiter.getLimit(HOST));
+
+    try {
+      loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> {
+        throw new SocketException("Connection reset");
+      });
+      fail("SocketException expected");
+    } catch (SocketException expected) {
+      // expected
+    }
+    assertTrue(limiter.getLimit(HOST) < initialLimit);
+  }
+
+  @Test
+  public void testRetriesIdempotentRequestOnIoError() throws Exception {
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, breaker,
+        new RetryBudget(0.1), 2);
+    AtomicInteger attempts = new AtomicInteger();
+    long start = System.currentTimeMillis();
+    CloseableHttpResponse response = loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw new SocketException("Connection reset");
+      }
+      if (attempts.get() == 2) {
+        throw new SocketTimeoutException("Read timed out");
+      }
+      return response(200);
+    });
+    assertEquals(200, response.getStatusLine().getStatusCode());
+    assertEquals(3, attempts.get());
+    assertTrue(System.currentTimeMillis() - start >= RetryLoop.BACKOFF_BASE_MILLIS * 3);
+  }
+
+  @Test
+  public void testRetriesRegistrationOnIoError() throws Exception {
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, breaker,
+        new RetryBudget(0.1), 1);
+    HttpPut register = new IdempotentHttpPut("https://" + HOST + "/register");
+    register.setEntity(new StringEntity("{}"));
+    AtomicInteger attempts = new AtomicInteger();
+    CloseableHttpResponse response = loop.execute(HOST, HttpRequestWrapper.wrap(register), new BasicHttpContext(),
+        () -> {
+          if (attempts.incrementAndGet() == 1) {
+            throw new NoHttpResponseException(HOST + " failed to respond");
+          }
+          return response(201);
+        });
+    assertEquals(201, response.getStatusLine().getStatusCode());
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  public void testDoesNotRetryUploadOnIoError() throws Exception {
+    assertNotRetriedOnIoError(new HttpPut("https://" + HOST + "/artifact.jar"), new SocketException("Connection reset"));
+  }
+
+  @Test
+  public void testDoesNotRetryPermanentIoError() throws Exception {
+    assertNotRetriedOnIoError(new HttpGet("https://" + HOST), new UnknownHostException(HOST));
+  }
+
+  @Test
+  public void testBackoffGrowsExponentially() {
+    assertEquals(RetryLoop.BACKOFF_BASE_MILLIS, RetryLoop.getBackoff(1));
+    assertEquals(RetryLoop.BACKOFF_BASE_MILLIS * 2, RetryLoop.getBackoff(2));
+    assertEquals(RetryLoop.BACKOFF_BASE_MILLIS * 4, RetryLoop.getBackoff(3));
+    assertEquals(RetryLoop.MAX_BACKOFF_MILLIS, RetryLoop.getBackoff(100));
+  }
+
+  private void assertNotRetriedOnIoError(HttpRequestBase request, IOException error) throws Exception {
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate, breaker,
+        new RetryBudget(0.1), 3);
+    AtomicInteger attempts = new AtomicInteger();
+    try {
+      loop.execute(HOST, request, new BasicHttpContext(), () -> {
+        attempts.incrementAndGet();
+        throw error;
+      });
+      fail("IOException expected");
+    } catch (IOException expected) {
+      assertSame(error, expected);
+    }
+    assertEquals(1, attempts.get());
+  }
+
+  private static CloseableHttpResponse response(int status) {
+    TestResponse response = new TestResponse(status);
+    response.addHeader(RETRY_AFTER_HEADER, "0");
+    return response;
+  }
+
+  private static final class TestResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+    private TestResponse(int status) {
+      super(new BasicStatusLine(HttpVersion.HTTP_1_1, status, null));
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SharedConnectionPoolTest {
+
+  @Test
+  public void testWagonPoolIsShared() {
+    HttpClientConnectionManager wagonPool = SharedConnectionPool.lookupWagonConnectionManager();
+    assertSame(wagonPool, SharedConnectionPool.lookupWagonConnectionManager());
+    assertTrue(wagonPool instanceof PoolingHttpClientConnectionManager);
+  }
+
+  @Test
+  public void testMaxPerRouteIsConfigured() {
+    PoolingHttpClientConnectionManager pool =
+        (PoolingHttpClientConnectionManager) SharedConnectionPool.lookupWagonConnectionManager();
+    int maxPerRoute = pool.getDefaultMaxPerRoute();
+    try {
+      SharedConnectionPool sharedPool = new SharedConnectionPool(true, 30, 0);
+      assertSame(pool, sharedPool.getConnectionManager());
+      assertEquals(30, pool.getDefaultMaxPerRoute());
+    } finally {
+      pool.setDefaultMaxPerRoute(maxPerRoute);
+    }
+  }
+
+  @Test
+  public void testPreconnectOpensConnectionWithoutRequest() throws Exception {
+    PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+    try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      SharedConnectionPool.preconnect(pool, URI.create("http://localhost:" + server.getLocalPort() + "/artifact"), 1000);
+      try (Socket socket = server.accept()) {
+        socket.setSoTimeout(200);
+        try {
+          int read = socket.getInputStream().read();
+          fail("No request expected, read " + read);
+        } catch (SocketTimeoutException expected) {
+          // nothing was sent
+        }
+      }
+      // the open connection waits in the pool for the first request
+      assertEquals(1, pool.getTotalStats().getAvailable());
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
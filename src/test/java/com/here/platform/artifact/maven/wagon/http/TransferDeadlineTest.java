@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.http;
+
+import com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.here.platform.artifact.maven.wagon.XRateLimitServiceUnavailableRetryStrategy.RETRY_AFTER_HEADER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TransferDeadlineTest {
+
+  private static final String HOST = "repo.example.com";
+
+  @Test
+  public void testDeadlineIsScopedToTransfer() {
+    assertEquals(Long.MAX_VALUE, TransferDeadline.remainingMillis());
+    TransferDeadline.Scope deadline = TransferDeadline.start(60000);
+    try {
+      assertTrue(TransferDeadline.remainingMillis() <= 60000);
+      // nested transfers keep the outer deadline
+      TransferDeadline.Scope nested = TransferDeadline.start(1000);
+      try {
+        assertTrue(TransferDeadline.remainingMillis() > 1000);
+      } finally {
+        nested.end();
+      }
+      assertTrue(TransferDeadline.remainingMillis() > 1000);
+    } finally {
+      deadline.end();
+    }
+    assertEquals(Long.MAX_VALUE, TransferDeadline.remainingMillis());
+  }
+
+  @Test
+  public void testRetryIsGivenUpIfItCantCompleteWithinDeadline() throws Exception {
+    RateLimitGate gate = new RateLimitGate();
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate,
+        new CircuitBreaker(0, 0), new RetryBudget(-1));
+    AtomicInteger attempts = new AtomicInteger();
+    long start = System.currentTimeMillis();
+    TransferDeadline.Scope deadline = TransferDeadline.start(2000);
+    try {
+      CloseableHttpResponse response = loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> {
+        attempts.incrementAndGet();
+        return response(429, "30");
+      });
+      assertEquals(429, response.getStatusLine().getStatusCode());
+    } finally {
+      deadline.end();
+    }
+    assertEquals(1, attempts.get());
+    assertTrue(System.currentTimeMillis() - start < 1000);
+  }
+
+  @Test
+  public void testNoRequestIsSentAfterDeadline() throws Exception {
+    RateLimitGate gate = new RateLimitGate();
+    gate.pause(HOST, 5000);
+    RetryLoop loop = new RetryLoop(new XRateLimitServiceUnavailableRetryStrategy(gate), gate,
+        new CircuitBreaker(0, 0), new RetryBudget(-1));
+    TransferDeadline.Scope deadline = TransferDeadline.start(1000);
+    try {
+      loop.execute(HOST, new HttpGet("https://" + HOST), new BasicHttpContext(), () -> response(200, "0"));
+      fail("DeadlineExceededException expected");
+    } catch (TransferDeadline.DeadlineExceededException expected) {
+      // expected
+    } finally {
+      deadline.end();
+    }
+  }
+
+  private static CloseableHttpResponse response(int status, String retryAfter) {
+    TestResponse response = new TestResponse(status);
+    response.addHeader(RETRY_AFTER_HEADER, retryAfter);
+    return response;
+  }
+
+  private static final class TestResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+    private TestResponse(int status) {
+      super(new BasicStatusLine(HttpVersion.HTTP_1_1, status, null));
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
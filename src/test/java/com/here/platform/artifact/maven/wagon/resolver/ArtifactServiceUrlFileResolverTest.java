@@ -28,7 +28,7 @@ public class ArtifactServiceUrlFileResolverTest {
 
   @Before
   public void cleanupCacheFile() {
-    File file = new File(System.getProperty("java.io.tmpdir"), "artifact_wagon_url_cache.properties");
+    File file = new File(System.getProperty("java.io.tmpdir"), "artifact_wagon_url_cache.json");
     file.delete();
   }
 
@@ -48,4 +48,21 @@ public class ArtifactServiceUrlFileResolverTest {
     Assert.assertEquals("https://artifact.api.platform.sit.here.com/", resolver.resolveArtifactServiceUrl("https://stg.account.api.here.com/oauth2/token"));
   }
 
+  @Test
+  public void testResolutionSharedBetweenInstances() {
+    new ArtifactServiceUrlFileResolver().afterUrlResolved("https://account.api.here.com/oauth2/token", "https://artifact.api.platform.here.com/");
+    ArtifactServiceUrlFileResolver resolver = new ArtifactServiceUrlFileResolver();
+    Assert.assertEquals("https://artifact.api.platform.here.com/", resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token"));
+    new ArtifactServiceUrlFileResolver().afterUrlResolved("https://account.api.here.com/oauth2/token", "https://other.api.platform.here.com/");
+    Assert.assertEquals("https://other.api.platform.here.com/", resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token"));
+  }
+
+  @Test
+  public void testInvalidation() {
+    ArtifactServiceUrlFileResolver resolver = new ArtifactServiceUrlFileResolver();
+    resolver.afterUrlResolved("https://account.api.here.com/oauth2/token", "https://artifact.api.platform.here.com/");
+    resolver.invalidate("https://account.api.here.com/oauth2/token");
+    Assert.assertEquals("", resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token"));
+  }
+
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ package com.here.platform.artifact.maven.wagon.resolver;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class ArtifactServiceUrlInMemoryCachedResolverTest {
 
@@ -33,4 +34,12 @@ public class ArtifactServiceUrlInMemoryCachedResolverTest {
     assertEquals("resolvedUrl2", resolver.resolveArtifactServiceUrl("tokenUrl2"));
   }
 
+  @Test
+  public void testInvalidation(){
+    ArtifactServiceUrlInMemoryCachedResolver resolver = new ArtifactServiceUrlInMemoryCachedResolver();
+    resolver.afterUrlResolved("tokenUrl3", "resolvedUrl3");
+    resolver.invalidate("tokenUrl3");
+    assertNull(resolver.resolveArtifactServiceUrl("tokenUrl3"));
+  }
+
 }
\ No newline at end of file
@@ -19,6 +19,7 @@
 package com.here.platform.artifact.maven.wagon.resolver;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.here.platform.artifact.maven.wagon.cache.ExpiringCache;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -27,22 +28,28 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.*;
 
 public class ArtifactServiceUrlLookupResolverTest {
 
   private static ProtocolVersion protocolVersion = new ProtocolVersion("http", 1, 0);
 
+  private static final String CATALOG = "[{\"api\": \"blob\", \"version\": \"v1\", \"baseURL\": \"blobUrl\"},"
+      + " {\"api\": \"artifact\", \"version\": \"v1\", \"baseURL\": \"resolvedUrl\"}]";
+
   @Test
   public void testSuccessfulResolution() throws IOException {
     CloseableHttpClient httpClientMock = mock(CloseableHttpClient.class);
     CloseableHttpResponse lookupResponseMock = mock(CloseableHttpResponse.class, RETURNS_DEEP_STUBS);
     when(lookupResponseMock.getStatusLine()).thenReturn(new BasicStatusLine(protocolVersion, 200, "OK"));
-    when(lookupResponseMock.getEntity().getContent()).thenReturn(new ByteArrayInputStream("[{\"baseURL\": \"resolvedUrl\"}]".getBytes()));
+    when(lookupResponseMock.getEntity().getContent()).thenReturn(new ByteArrayInputStream(CATALOG.getBytes()));
     when(httpClientMock.execute(any())).thenReturn(lookupResponseMock);
-    ArtifactServiceUrlLookupResolver resolver = new ArtifactServiceUrlLookupResolver(() -> httpClientMock, new ObjectMapper());
+    ArtifactServiceUrlLookupResolver resolver = newResolver(() -> httpClientMock);
     String resolvedUrl = resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token");
     assertEquals("resolvedUrl/artifact", resolvedUrl);
   }
@@ -53,9 +60,67 @@ public class ArtifactServiceUrlLookupResolverTest {
     CloseableHttpResponse lookupResponseMock = mock(CloseableHttpResponse.class, RETURNS_DEEP_STUBS);
     when(lookupResponseMock.getStatusLine()).thenReturn(new BasicStatusLine(protocolVersion, 500, "Server Error"));
     when(httpClientMock.execute(any())).thenReturn(lookupResponseMock);
-    ArtifactServiceUrlLookupResolver resolver = new ArtifactServiceUrlLookupResolver(() -> httpClientMock, new ObjectMapper());
+    ArtifactServiceUrlLookupResolver resolver = newResolver(() -> httpClientMock);
     String resolvedUrl = resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token");
     assertEquals("resolvedUrl/artifact", resolvedUrl);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testCatalogIsRequestedOnceWithSameClient() throws IOException {
+    CloseableHttpClient httpClientMock = mock(CloseableHttpClient.class);
+    CloseableHttpResponse lookupResponseMock = mock(CloseableHttpResponse.class, RETURNS_DEEP_STUBS);
+    when(lookupResponseMock.getStatusLine()).thenReturn(new BasicStatusLine(protocolVersion, 200, "OK"));
+    when(lookupResponseMock.getEntity().getContent()).thenReturn(new ByteArrayInputStream(CATALOG.getBytes()));
+    when(httpClientMock.execute(any())).thenReturn(lookupResponseMock);
+    Supplier<CloseableHttpClient> httpClientFactory = mock(Supplier.class);
+    when(httpClientFactory.get()).thenReturn(httpClientMock);
+    ArtifactServiceUrlLookupResolver resolver = newResolver(httpClientFactory);
+
+    assertEquals("resolvedUrl/artifact", resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token"));
+    assertEquals("blobUrl", resolver.resolveApiBaseUrl("https://account.api.here.com/oauth2/token", "blob", "v1"));
+    assertNull(resolver.resolveApiBaseUrl("https://account.api.here.com/oauth2/token", "blob", "v2"));
+
+    verify(httpClientFactory, times(1)).get();
+    verify(httpClientMock, times(1)).execute(any());
+    verify(httpClientMock, never()).close();
+  }
+
+  @Test
+  public void testInvalidateRequestsCatalogAgain() throws IOException {
+    CloseableHttpClient httpClientMock = mock(CloseableHttpClient.class);
+    CloseableHttpResponse lookupResponseMock = mock(CloseableHttpResponse.class, RETURNS_DEEP_STUBS);
+    when(lookupResponseMock.getStatusLine()).thenReturn(new BasicStatusLine(protocolVersion, 200, "OK"));
+    when(lookupResponseMock.getEntity().getContent())
+        .thenReturn(new ByteArrayInputStream(CATALOG.getBytes()), new ByteArrayInputStream(CATALOG.getBytes()));
+    when(httpClientMock.execute(any())).thenReturn(lookupResponseMock);
+    ArtifactServiceUrlLookupResolver resolver = newResolver(() -> httpClientMock);
+
+    assertEquals("resolvedUrl/artifact", resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token"));
+    resolver.invalidate("https://account.api.here.com/oauth2/token");
+    assertEquals("resolvedUrl/artifact", resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token"));
+
+    verify(httpClientMock, times(2)).execute(any());
+  }
+
+  @Test
+  public void testCloseReleasesClient() throws IOException {
+    CloseableHttpClient httpClientMock = mock(CloseableHttpClient.class);
+    CloseableHttpResponse lookupResponseMock = mock(CloseableHttpResponse.class, RETURNS_DEEP_STUBS);
+    when(lookupResponseMock.getStatusLine()).thenReturn(new BasicStatusLine(protocolVersion, 200, "OK"));
+    when(lookupResponseMock.getEntity().getContent()).thenReturn(new ByteArrayInputStream(CATALOG.getBytes()));
+    when(httpClientMock.execute(any())).thenReturn(lookupResponseMock);
+    ArtifactServiceUrlLookupResolver resolver = newResolver(() -> httpClientMock);
+
+    resolver.close();
+    verify(httpClientMock, never()).close();
+    resolver.resolveArtifactServiceUrl("https://account.api.here.com/oauth2/token");
+    resolver.close();
+    verify(httpClientMock, times(1)).close();
+  }
+
+  private ArtifactServiceUrlLookupResolver newResolver(Supplier<CloseableHttpClient> httpClientFactory) {
+    return new ArtifactServiceUrlLookupResolver(
+        httpClientFactory, new ObjectMapper(), new ExpiringCache<>(10, Duration.ofMinutes(1)));
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2018-2025 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+package com.here.platform.artifact.maven.wagon.util;
+
+import com.here.platform.artifact.maven.wagon.http.TransferDeadline;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+  @Test
+  public void testConcurrentCallsAreCoalesced() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+          calls.incrementAndGet();
+          release.await();
+          return "value";
+        })));
+      }
+      while (calls.get() == 0) {
+        Thread.sleep(1);
+      }
+      Thread.sleep(50);
+      release.countDown();
+      for (Future<String> result : results) {
+        assertEquals("value", result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, calls.get());
+      assertEquals(0, singleFlight.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testExceptionIsSharedWithWaitingCallers() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    IOException failure = new IOException("failed");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+        started.countDown();
+        release.await();
+        throw failure;
+      }));
+      started.await();
+      Future<String> waiter = executor.submit(() -> singleFlight.execute("key", () -> "unexpected"));
+      Thread.sleep(50);
+      release.countDown();
+      for (Future<String> result : Arrays.asList(leader, waiter)) {
+        try {
+          result.get(5, TimeUnit.SECONDS);
+          fail("Call should fail");
+        } catch (ExecutionException e) {
+          assertSame(failure, e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWaiterGivesUpAtDeadline() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+        started.countDown();
+        release.await();
+        return "value";
+      }));
+      started.await();
+      Future<String> waiter = executor.submit(() -> {
+        TransferDeadline.Scope deadline = TransferDeadline.start(100);
+        try {
+          return singleFlight.execute("key", () -> "unexpected");
+        } finally {
+          deadline.end();
+        }
+      });
+      try {
+        waiter.get(5, TimeUnit.SECONDS);
+        fail("Waiter should give up");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof TransferDeadline.DeadlineExceededException);
+      }
+      // the call continues for the others
+      release.countDown();
+      assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}